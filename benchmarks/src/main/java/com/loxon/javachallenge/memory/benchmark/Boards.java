@@ -0,0 +1,59 @@
+package com.loxon.javachallenge.memory.benchmark;
+
+import com.loxon.javachallenge.memory.api.Game;
+import com.loxon.javachallenge.memory.api.MemoryState;
+import com.loxon.javachallenge.memory.api.Player;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Game set-up shared by the benchmarks.
+ */
+public final class Boards {
+
+    private Boards() {
+    }
+
+    /**
+     * Creates a board where every 8th block is a system block and every other cell is free.
+     * @param cells number of cells
+     * @return new, modifiable list of states
+     */
+    public static List<MemoryState> initialMemory(final int cells) {
+        MemoryState[] states = new MemoryState[cells];
+        for (int i = 0; i < cells; i++) {
+            states[i] = (i / 4) % 8 == 1 ? MemoryState.SYSTEM : MemoryState.FREE;
+        }
+        return Arrays.asList(states);
+    }
+
+    /**
+     * Creates and starts a game with the given number of players.
+     * @param engine implementation to use
+     * @param cells number of cells
+     * @param playerCount number of players
+     * @param players list receiving the registered players
+     * @return started game
+     */
+    public static Game start(final Engine engine, final int cells, final int playerCount, final List<Player> players) {
+        Game game = engine.create();
+        for (int i = 0; i < playerCount; i++) {
+            players.add(game.registerPlayer("p" + i));
+        }
+        game.startGame(initialMemory(cells), Integer.MAX_VALUE);
+        return game;
+    }
+
+    /**
+     * Creates and starts a game with the given number of players.
+     * @param engine implementation to use
+     * @param cells number of cells
+     * @param playerCount number of players
+     * @return started game
+     */
+    public static Game start(final Engine engine, final int cells, final int playerCount) {
+        return start(engine, cells, playerCount, new ArrayList<>(playerCount));
+    }
+}
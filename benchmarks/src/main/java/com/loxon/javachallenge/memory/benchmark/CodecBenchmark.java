@@ -0,0 +1,141 @@
+package com.loxon.javachallenge.memory.benchmark;
+
+import com.loxon.javachallenge.memory.api.Game;
+import com.loxon.javachallenge.memory.api.Player;
+import com.loxon.javachallenge.memory.api.communication.commands.CommandScanRange;
+import com.loxon.javachallenge.memory.api.communication.general.Command;
+import com.loxon.javachallenge.memory.api.communication.general.Response;
+import com.loxon.javachallenge.memory.codec.CommandView;
+import com.loxon.javachallenge.memory.codec.MalformedMessageException;
+import com.loxon.javachallenge.memory.codec.MessageCodec;
+import com.loxon.javachallenge.memory.codec.ResponseView;
+import org.openjdk.jmh.annotations.*;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of the binary codec: encoding a round of commands and its responses into a direct buffer,
+ * decoding them into objects, and reading them in place with the flyweight views.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CodecBenchmark {
+
+    private static final int CELLS = 100000;
+    private static final int PLAYERS = 1000;
+
+    @Param({"ALLOCATE_HEAVY", "SWAP_HEAVY", "SCAN_HEAVY"})
+    private CommandMix mix;
+
+    private Player player;
+    private Command[] commands;
+    private Response[] responses;
+    private ByteBuffer encodedCommands;
+    private ByteBuffer encodedResponses;
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(1 << 24);
+    private final CommandView commandView = new CommandView();
+    private final ResponseView responseView = new ResponseView();
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        List<Player> registered = new ArrayList<>(PLAYERS);
+        Game game = Boards.start(Engine.PACKED, CELLS, PLAYERS, registered);
+        player = registered.get(0);
+        Command[][] rounds = mix.generate(registered, CELLS, 4, 42L);
+        for (int i = 0; i < rounds.length - 1; i++) {
+            game.nextRound(rounds[i]);
+        }
+        commands = rounds[rounds.length - 1].clone();
+        if (mix == CommandMix.SCAN_HEAVY) {
+            for (int i = 0; i < commands.length; i += 4) {
+                commands[i] = new CommandScanRange(commands[i].getPlayer(), i * 64 % CELLS, 256);
+            }
+        }
+        responses = game.nextRound(commands).toArray(new Response[0]);
+
+        encodedCommands = ByteBuffer.allocateDirect(1 << 24);
+        for (Command command : commands) {
+            MessageCodec.encode(encodedCommands, command);
+        }
+        encodedCommands.flip();
+        encodedResponses = ByteBuffer.allocateDirect(1 << 24);
+        for (Response response : responses) {
+            MessageCodec.encode(encodedResponses, response);
+        }
+        encodedResponses.flip();
+    }
+
+    @Benchmark
+    public int encodeCommands() {
+        buffer.clear();
+        for (Command command : commands) {
+            MessageCodec.encode(buffer, command);
+        }
+        return buffer.position();
+    }
+
+    @Benchmark
+    public int encodeResponses() {
+        buffer.clear();
+        for (Response response : responses) {
+            MessageCodec.encode(buffer, response);
+        }
+        return buffer.position();
+    }
+
+    @Benchmark
+    public Command decodeCommands() throws MalformedMessageException {
+        ByteBuffer in = encodedCommands.duplicate();
+        Command last = null;
+        while (in.hasRemaining()) {
+            last = MessageCodec.decodeCommand(in, player);
+        }
+        return last;
+    }
+
+    @Benchmark
+    public Response decodeResponses() throws MalformedMessageException {
+        ByteBuffer in = encodedResponses.duplicate();
+        Response last = null;
+        while (in.hasRemaining()) {
+            last = MessageCodec.decodeResponse(in, player);
+        }
+        return last;
+    }
+
+    @Benchmark
+    public long viewCommands() throws MalformedMessageException {
+        long sum = 0;
+        int limit = encodedCommands.limit();
+        for (int offset = 0; offset < limit; offset += commandView.getEncodedLength()) {
+            commandView.wrap(encodedCommands, offset);
+            while (commandView.hasNextCell()) {
+                sum += commandView.nextCell();
+            }
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public long viewResponses() throws MalformedMessageException {
+        long sum = 0;
+        int limit = encodedResponses.limit();
+        for (int offset = 0; offset < limit; offset += responseView.getEncodedLength()) {
+            responseView.wrap(encodedResponses, offset);
+            while (responseView.hasNextCell()) {
+                sum += responseView.nextCell();
+            }
+            for (int i = 0; i < responseView.getStateCount(); i++) {
+                sum += responseView.getStateOrdinal(i);
+            }
+        }
+        return sum;
+    }
+}
@@ -0,0 +1,89 @@
+package com.loxon.javachallenge.memory.benchmark;
+
+import com.loxon.javachallenge.memory.api.Player;
+import com.loxon.javachallenge.memory.api.communication.commands.CommandAllocate;
+import com.loxon.javachallenge.memory.api.communication.commands.CommandFortify;
+import com.loxon.javachallenge.memory.api.communication.commands.CommandFree;
+import com.loxon.javachallenge.memory.api.communication.commands.CommandRecover;
+import com.loxon.javachallenge.memory.api.communication.commands.CommandScan;
+import com.loxon.javachallenge.memory.api.communication.commands.CommandStats;
+import com.loxon.javachallenge.memory.api.communication.commands.CommandSwap;
+import com.loxon.javachallenge.memory.api.communication.general.Command;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Distribution of the commands sent by the players in a round.
+ * Heavy mixes send the named command 70% of the time and a uniformly chosen one otherwise.
+ */
+public enum CommandMix {
+
+    ALLOCATE_HEAVY(Kind.ALLOCATE, Integer.MAX_VALUE),
+    SWAP_HEAVY(Kind.SWAP, Integer.MAX_VALUE),
+    SCAN_HEAVY(Kind.SCAN, Integer.MAX_VALUE),
+    /**
+     * Uniform commands targeting the first 64 cells only, so most accesses collide.
+     */
+    CONFLICT_HEAVY(null, 64);
+
+    private enum Kind {
+        ALLOCATE, FREE, RECOVER, FORTIFY, SWAP, SCAN, STATS
+    }
+
+    private static final Kind[] KINDS = Kind.values();
+
+    private final Kind heavy;
+    private final int hotCells;
+
+    CommandMix(final Kind heavy, final int hotCells) {
+        this.heavy = heavy;
+        this.hotCells = hotCells;
+    }
+
+    /**
+     * Generates the commands of several rounds, one command per player in each.
+     * @param players registered players
+     * @param cells number of cells on the board
+     * @param rounds number of rounds
+     * @param seed seed of the generator
+     * @return commands indexed by round
+     */
+    public Command[][] generate(final List<Player> players, final int cells, final int rounds, final long seed) {
+        Random random = new Random(seed);
+        int range = Math.min(cells, hotCells);
+        Command[][] result = new Command[rounds][];
+        for (int round = 0; round < rounds; round++) {
+            Command[] commands = new Command[players.size()];
+            for (int i = 0; i < commands.length; i++) {
+                commands[i] = command(players.get(i), range, random);
+            }
+            result[round] = commands;
+        }
+        return result;
+    }
+
+    private Command command(final Player player, final int range, final Random random) {
+        Kind kind = heavy != null && random.nextInt(10) < 7 ? heavy : KINDS[random.nextInt(KINDS.length)];
+        int cell = random.nextInt(range);
+        int block = cell & ~3;
+        int other = Math.min(block + random.nextInt(4), range - 1);
+        switch (kind) {
+            case ALLOCATE:
+                return new CommandAllocate(player, Arrays.asList(cell, other));
+            case FREE:
+                return new CommandFree(player, Arrays.asList(cell, other));
+            case RECOVER:
+                return new CommandRecover(player, Arrays.asList(cell, other));
+            case FORTIFY:
+                return new CommandFortify(player, Arrays.asList(cell, other));
+            case SWAP:
+                return new CommandSwap(player, Arrays.asList(cell, random.nextInt(range)));
+            case SCAN:
+                return new CommandScan(player, cell);
+            default:
+                return new CommandStats(player);
+        }
+    }
+}
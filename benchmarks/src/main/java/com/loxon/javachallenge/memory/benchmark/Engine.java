@@ -0,0 +1,39 @@
+package com.loxon.javachallenge.memory.benchmark;
+
+import com.loxon.javachallenge.memory.GameImplementationFactory;
+import com.loxon.javachallenge.memory.api.Game;
+import com.loxon.javachallenge.memory.api.PlayerIdGenerator;
+import com.loxon.javachallenge.memory.engine.PackedGame;
+
+/**
+ * Game implementations under measurement.
+ */
+public enum Engine {
+
+    /**
+     * Reference implementation of the rules.
+     */
+    BASELINE {
+        @Override
+        public Game create() {
+            return GameImplementationFactory.get();
+        }
+    },
+    /**
+     * Packed board engine.
+     */
+    PACKED {
+        @Override
+        public Game create() {
+            PackedGame game = new PackedGame();
+            game.setPlayerIdGenerator(PlayerIdGenerator.SEQUENTIAL);
+            return game;
+        }
+    };
+
+    /**
+     * Creates a new game instance.
+     * @return game
+     */
+    public abstract Game create();
+}
@@ -0,0 +1,78 @@
+package com.loxon.javachallenge.memory.benchmark;
+
+import com.loxon.javachallenge.memory.api.Game;
+import com.loxon.javachallenge.memory.api.Player;
+import com.loxon.javachallenge.memory.api.PlayerScore;
+import com.loxon.javachallenge.memory.api.communication.commands.CommandScan;
+import com.loxon.javachallenge.memory.api.communication.commands.CommandStats;
+import com.loxon.javachallenge.memory.api.communication.general.Command;
+import com.loxon.javachallenge.memory.api.communication.general.Response;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of the read-only paths: scores, stats, scans and visualization.
+ * The board is warmed up with a few allocation-heavy rounds before measuring.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class QueryBenchmark {
+
+    @Param({"24", "10000", "1000000", "10000000"})
+    private int cells;
+
+    @Param({"2", "100", "10000", "100000"})
+    private int players;
+
+    @Param({"BASELINE", "PACKED"})
+    private Engine engine;
+
+    private Game game;
+    private Command[] stats;
+    private Command[] scans;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        List<Player> registered = new ArrayList<>(players);
+        game = Boards.start(engine, cells, players, registered);
+        for (Command[] round : CommandMix.ALLOCATE_HEAVY.generate(registered, cells, 4, 42L)) {
+            game.nextRound(round);
+        }
+
+        Random random = new Random(42L);
+        stats = new Command[players];
+        scans = new Command[players];
+        for (int i = 0; i < players; i++) {
+            stats[i] = new CommandStats(registered.get(i));
+            scans[i] = new CommandScan(registered.get(i), random.nextInt(cells));
+        }
+    }
+
+    @Benchmark
+    public List<PlayerScore> getScores() {
+        return game.getScores();
+    }
+
+    @Benchmark
+    public List<Response> statsRound() {
+        return game.nextRound(stats);
+    }
+
+    @Benchmark
+    public List<Response> scanRound() {
+        return game.nextRound(scans);
+    }
+
+    @Benchmark
+    public String visualize() {
+        return game.visualize();
+    }
+}
@@ -0,0 +1,54 @@
+package com.loxon.javachallenge.memory.benchmark;
+
+import com.loxon.javachallenge.memory.api.Game;
+import com.loxon.javachallenge.memory.api.Player;
+import com.loxon.javachallenge.memory.api.communication.general.Command;
+import com.loxon.javachallenge.memory.api.communication.general.Response;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of {@link Game#nextRound(Command...)} for different command mixes.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RoundBenchmark {
+
+    private static final int ROUNDS = 16;
+
+    @Param({"24", "10000", "1000000", "10000000"})
+    private int cells;
+
+    @Param({"2", "100", "10000", "100000"})
+    private int players;
+
+    @Param({"ALLOCATE_HEAVY", "SWAP_HEAVY", "SCAN_HEAVY", "CONFLICT_HEAVY"})
+    private CommandMix mix;
+
+    @Param({"BASELINE", "PACKED"})
+    private Engine engine;
+
+    private Game game;
+    private Command[][] rounds;
+    private int round;
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        List<Player> registered = new ArrayList<>(players);
+        game = Boards.start(engine, cells, players, registered);
+        rounds = mix.generate(registered, cells, ROUNDS, 42L);
+        round = 0;
+    }
+
+    @Benchmark
+    public List<Response> nextRound() {
+        return game.nextRound(rounds[round++ % ROUNDS]);
+    }
+}
@@ -1,6 +1,5 @@
 package com.loxon.javachallenge.memory.api;
 
-import java.util.Objects;
 import java.util.UUID;
 
 /**
@@ -11,16 +10,43 @@ import java.util.UUID;
 public class Player {
 
     private String name;
-    private String id = UUID.randomUUID().toString();
+    private final long idHigh;
+    private final long idLow;
 
+    /**
+     * Creates a player with an unpredictable id from {@link PlayerIdGenerator#SECURE}.
+     * @param name name of the player
+     */
     public Player(final String name) {
+        this(name, PlayerIdGenerator.SECURE);
+    }
+
+    /**
+     * Creates a player with an id of the given generator.
+     * @param name name of the player
+     * @param ids id generator, {@link PlayerIdGenerator#SEQUENTIAL} and {@link PlayerIdGenerator#RANDOM}
+     *            are faster than the default but their ids can be predicted
+     */
+    public Player(final String name, final PlayerIdGenerator ids) {
         this.name = name;
+        UUID id = ids.next();
+        this.idHigh = id.getMostSignificantBits();
+        this.idLow = id.getLeastSignificantBits();
     }
 
     public String getName() {
         return name;
     }
 
+    /**
+     * Identity of the player, equal players have equal ids.
+     * The id is public and must not be used as a credential.
+     * @return id of the player
+     */
+    public UUID getId() {
+        return new UUID(idHigh, idLow);
+    }
+
     @Override
     public boolean equals(final Object o) {
         if (this == o) {
@@ -30,11 +56,11 @@ public class Player {
             return false;
         }
         final Player player = (Player) o;
-        return Objects.equals(id, player.id);
+        return idHigh == player.idHigh && idLow == player.idLow;
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(id);
+        return Long.hashCode(idHigh ^ idLow * 0x9E3779B97F4A7C15L);
     }
 }
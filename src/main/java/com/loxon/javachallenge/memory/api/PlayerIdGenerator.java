@@ -0,0 +1,49 @@
+package com.loxon.javachallenge.memory.api;
+
+import java.security.SecureRandom;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Strategy generating the 128-bit identities of players.
+ * Generated ids must be unique within the process, generators must be thread-safe.
+ */
+@FunctionalInterface
+public interface PlayerIdGenerator {
+
+    /**
+     * Process-wide counter below a per-process prefix. Unique within the process, never blocks.
+     * Ids are predictable, meant for simulations registering many players.
+     */
+    PlayerIdGenerator SEQUENTIAL = new PlayerIdGenerator() {
+        private final long prefix = System.nanoTime() ^ System.currentTimeMillis() * 0x9E3779B97F4A7C15L;
+        private final AtomicLong counter = new AtomicLong();
+
+        @Override
+        public UUID next() {
+            return new UUID(prefix, counter.getAndIncrement());
+        }
+    };
+
+    /**
+     * 128 bits from the thread-local pseudo-random generator, unique with overwhelming probability.
+     * Never blocks, and threads do not contend. Ids are not cryptographically unpredictable.
+     */
+    PlayerIdGenerator RANDOM = () -> {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        return new UUID(random.nextLong(), random.nextLong());
+    };
+
+    /**
+     * Random UUIDs from {@link SecureRandom}, the default of {@link Player#Player(String)}.
+     * Ids are unpredictable, but generation can be slow and can block while the system gathers entropy.
+     */
+    PlayerIdGenerator SECURE = UUID::randomUUID;
+
+    /**
+     * Generates the id of a new player.
+     * @return a new id
+     */
+    UUID next();
+}
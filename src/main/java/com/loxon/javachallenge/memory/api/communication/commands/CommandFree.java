@@ -2,6 +2,7 @@ package com.loxon.javachallenge.memory.api.communication.commands;
 
 import com.loxon.javachallenge.memory.api.Player;
 import com.loxon.javachallenge.memory.api.communication.general.CommandGeneral;
+import com.loxon.javachallenge.memory.api.communication.general.CommandVisitor;
 
 import java.util.List;
 
@@ -12,4 +13,13 @@ public class CommandFree extends CommandGeneral {
     public CommandFree(final Player player, final List<Integer> cells) {
         super(player, cells);
     }
+
+    public CommandFree(final Player player, final int... cells) {
+        super(player, cells);
+    }
+
+    @Override
+    public <R> R accept(final CommandVisitor<R> visitor) {
+        return visitor.visitFree(this);
+    }
 }
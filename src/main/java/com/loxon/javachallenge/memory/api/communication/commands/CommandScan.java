@@ -2,6 +2,7 @@ package com.loxon.javachallenge.memory.api.communication.commands;
 
 import com.loxon.javachallenge.memory.api.Player;
 import com.loxon.javachallenge.memory.api.communication.general.Command;
+import com.loxon.javachallenge.memory.api.communication.general.CommandVisitor;
 
 /**
  * Scan a block in the memory.
@@ -18,4 +19,8 @@ public class CommandScan extends Command {
         return cell;
     }
 
+    @Override
+    public <R> R accept(final CommandVisitor<R> visitor) {
+        return visitor.visitScan(this);
+    }
 }
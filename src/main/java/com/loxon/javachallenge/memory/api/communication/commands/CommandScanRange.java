@@ -0,0 +1,27 @@
+package com.loxon.javachallenge.memory.api.communication.commands;
+
+import com.loxon.javachallenge.memory.api.Player;
+import com.loxon.javachallenge.memory.api.communication.general.CommandVisitor;
+
+/**
+ * Scan a contiguous run of blocks in the memory.
+ * The range is extended to whole blocks, and it is cut to the scan budget of the game.
+ * Engines not knowing the command treat it as a {@link CommandScan} of the first block.
+ */
+public class CommandScanRange extends CommandScan {
+    private int cellCount;
+
+    public CommandScanRange(final Player player, final int firstCell, final int cellCount) {
+        super(player, firstCell);
+        this.cellCount = cellCount;
+    }
+
+    public int getCellCount() {
+        return cellCount;
+    }
+
+    @Override
+    public <R> R accept(final CommandVisitor<R> visitor) {
+        return visitor.visitScanRange(this);
+    }
+}
@@ -2,6 +2,7 @@ package com.loxon.javachallenge.memory.api.communication.commands;
 
 import com.loxon.javachallenge.memory.api.Player;
 import com.loxon.javachallenge.memory.api.communication.general.Command;
+import com.loxon.javachallenge.memory.api.communication.general.CommandVisitor;
 
 /**
  * Get memory statistics.
@@ -12,4 +13,8 @@ public class CommandStats extends Command {
         super(player);
     }
 
+    @Override
+    public <R> R accept(final CommandVisitor<R> visitor) {
+        return visitor.visitStats(this);
+    }
 }
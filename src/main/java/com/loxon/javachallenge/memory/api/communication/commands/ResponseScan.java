@@ -20,6 +20,22 @@ public class ResponseScan extends Response {
         this.states = states;
     }
 
+    public int getFirstCell() {
+        return firstCell;
+    }
+
+    public void setFirstCell(final int firstCell) {
+        this.firstCell = firstCell;
+    }
+
+    public List<MemoryState> getStates() {
+        return states;
+    }
+
+    public void setStates(final List<MemoryState> states) {
+        this.states = states;
+    }
+
     @Override
     public boolean equals(final Object o) {
         if (this == o) {
@@ -0,0 +1,108 @@
+package com.loxon.javachallenge.memory.api.communication.commands;
+
+import com.loxon.javachallenge.memory.api.MemoryState;
+import com.loxon.javachallenge.memory.api.Player;
+import com.loxon.javachallenge.memory.api.communication.general.Response;
+
+/**
+ * Response for @{@link CommandScanRange} command.
+ * States are packed into a byte array, one {@link MemoryState#ordinal()} per cell,
+ * as seen by the player.
+ */
+public class ResponseScanRange extends Response {
+    private static final MemoryState[] STATES = MemoryState.values();
+
+    private int firstCell;
+    private byte[] states;
+    private int cellCount;
+
+    public ResponseScanRange(final Player player, final int firstCell, final byte[] states, final int cellCount) {
+        super(player);
+        this.firstCell = firstCell;
+        this.states = states;
+        this.cellCount = cellCount;
+    }
+
+    /**
+     * First scanned cell, -1 if the range is invalid.
+     * @return index of the cell
+     */
+    public int getFirstCell() {
+        return firstCell;
+    }
+
+    public void setFirstCell(final int firstCell) {
+        this.firstCell = firstCell;
+    }
+
+    /**
+     * Number of scanned cells, a multiple of the block size.
+     * @return number of cells
+     */
+    public int getCellCount() {
+        return cellCount;
+    }
+
+    /**
+     * Packed states of the scanned cells. Only the first {@link #getCellCount()} elements are valid,
+     * the array must not be modified.
+     * @return state ordinals
+     */
+    public byte[] getStates() {
+        return states;
+    }
+
+    public void setStates(final byte[] states, final int cellCount) {
+        this.states = states;
+        this.cellCount = cellCount;
+    }
+
+    /**
+     * State of a scanned cell.
+     * @param index index of the cell relative to the first scanned cell
+     * @return state of the cell
+     */
+    public MemoryState getState(final int index) {
+        if (index < 0 || index >= cellCount)
+            throw new IndexOutOfBoundsException("Index: " + index + ", size: " + cellCount);
+        return STATES[states[index]];
+    }
+
+    @Override
+    public boolean equals(final Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        final ResponseScanRange that = (ResponseScanRange) o;
+        if (firstCell != that.firstCell || cellCount != that.cellCount)
+            return false;
+        for (int i = 0; i < cellCount; i++) {
+            if (states[i] != that.states[i])
+                return false;
+        }
+        return true;
+    }
+
+    @Override
+    public int hashCode() {
+        int hash = 31 * firstCell + cellCount;
+        for (int i = 0; i < cellCount; i++) {
+            hash = 31 * hash + states[i];
+        }
+        return hash;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder("ResponseScanRange{firstCell=").append(firstCell).append(", states=[");
+        for (int i = 0; i < cellCount; i++) {
+            if (i > 0)
+                builder.append(", ");
+            builder.append(STATES[states[i]]);
+        }
+        return builder.append("]}").toString();
+    }
+}
@@ -1,6 +1,7 @@
 package com.loxon.javachallenge.memory.api.communication.commands;
 
 import com.loxon.javachallenge.memory.api.Player;
+import com.loxon.javachallenge.memory.api.communication.general.CellList;
 import com.loxon.javachallenge.memory.api.communication.general.Response;
 
 import java.util.List;
@@ -17,6 +18,18 @@ public class ResponseSuccessList extends Response {
         this.successCells = successCells;
     }
 
+    public ResponseSuccessList(final Player player, final int[] successCells, final int count) {
+        this(player, new CellList(successCells, count));
+    }
+
+    public List<Integer> getSuccessCells() {
+        return successCells;
+    }
+
+    public void setSuccessCells(final List<Integer> successCells) {
+        this.successCells = successCells;
+    }
+
     @Override
     public boolean equals(final Object o) {
         if (this == o) {
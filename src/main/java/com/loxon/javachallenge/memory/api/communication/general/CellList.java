@@ -0,0 +1,37 @@
+package com.loxon.javachallenge.memory.api.communication.general;
+
+import java.util.AbstractList;
+import java.util.RandomAccess;
+
+/**
+ * Read-only list view of the first elements of a primitive cell array.
+ * Elements equal to {@link CommandGeneral#NO_CELL} are seen as null.
+ */
+public final class CellList extends AbstractList<Integer> implements RandomAccess {
+    private final int[] cells;
+    private final int size;
+
+    public CellList(final int[] cells, final int size) {
+        if (size < 0 || size > cells.length)
+            throw new IndexOutOfBoundsException("Size: " + size + ", length: " + cells.length);
+        this.cells = cells;
+        this.size = size;
+    }
+
+    public CellList(final int[] cells) {
+        this(cells, cells.length);
+    }
+
+    @Override
+    public Integer get(final int index) {
+        if (index >= size)
+            throw new IndexOutOfBoundsException("Index: " + index + ", size: " + size);
+        int cell = cells[index];
+        return cell == CommandGeneral.NO_CELL ? null : cell;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+}
@@ -15,4 +15,15 @@ public abstract class Command {
     public Player getPlayer() {
         return player;
     }
+
+    /**
+     * Dispatches this command to the matching method of the visitor.
+     * Command types without a dedicated visitor method are passed to {@link CommandVisitor#visitOther(Command)}.
+     * @param visitor visitor to call
+     * @param <R> result type of the visit
+     * @return result of the visit
+     */
+    public <R> R accept(final CommandVisitor<R> visitor) {
+        return visitor.visitOther(this);
+    }
 }
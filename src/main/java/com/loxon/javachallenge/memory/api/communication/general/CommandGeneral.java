@@ -6,17 +6,52 @@ import java.util.List;
 
 /**
  * Abstract command affecting number of cells.
+ * Cells can be given either as a list or as a primitive array, both forms are available through the getters.
  */
 public abstract class CommandGeneral extends Command {
+
+    /**
+     * Array element standing for a missing (null) cell of the list form.
+     */
+    public static final int NO_CELL = Integer.MIN_VALUE;
+
     private List<Integer> cells;
+    private int[] cellArray;
 
     public CommandGeneral(final Player player, final List<Integer> cells) {
         super(player);
         this.cells = cells;
     }
 
+    public CommandGeneral(final Player player, final int... cells) {
+        super(player);
+        this.cellArray = cells;
+    }
+
+    /**
+     * Cells of the command. Null elements are missing cells.
+     * @return list of cells, a read-only view if the command was created from an array
+     */
     public List<Integer> getCells() {
+        if (cells == null)
+            cells = new CellList(cellArray);
         return cells;
     }
 
+    /**
+     * Cells of the command without boxing. Missing cells are {@link #NO_CELL}.
+     * The returned array must not be modified.
+     * @return array of cells
+     */
+    public int[] getCellArray() {
+        if (cellArray == null) {
+            int[] array = new int[cells.size()];
+            for (int i = 0; i < array.length; i++) {
+                Integer cell = cells.get(i);
+                array[i] = cell == null ? NO_CELL : cell;
+            }
+            cellArray = array;
+        }
+        return cellArray;
+    }
 }
@@ -0,0 +1,47 @@
+package com.loxon.javachallenge.memory.api.communication.general;
+
+import com.loxon.javachallenge.memory.api.communication.commands.CommandAllocate;
+import com.loxon.javachallenge.memory.api.communication.commands.CommandFortify;
+import com.loxon.javachallenge.memory.api.communication.commands.CommandFree;
+import com.loxon.javachallenge.memory.api.communication.commands.CommandRecover;
+import com.loxon.javachallenge.memory.api.communication.commands.CommandScan;
+import com.loxon.javachallenge.memory.api.communication.commands.CommandScanRange;
+import com.loxon.javachallenge.memory.api.communication.commands.CommandStats;
+import com.loxon.javachallenge.memory.api.communication.commands.CommandSwap;
+
+/**
+ * Visitor of the command types, see {@link Command#accept(CommandVisitor)}.
+ * @param <R> result type of the visit
+ */
+public interface CommandVisitor<R> {
+
+    R visitAllocate(final CommandAllocate command);
+
+    R visitFree(final CommandFree command);
+
+    R visitRecover(final CommandRecover command);
+
+    R visitFortify(final CommandFortify command);
+
+    R visitSwap(final CommandSwap command);
+
+    R visitScan(final CommandScan command);
+
+    /**
+     * Visits a range scan. Visitors not supporting range scans handle it as a scan of its first block.
+     * @param command command to visit
+     * @return result of the visit
+     */
+    default R visitScanRange(final CommandScanRange command) {
+        return visitScan(command);
+    }
+
+    R visitStats(final CommandStats command);
+
+    /**
+     * Visits a command type not known by this interface.
+     * @param command command to visit
+     * @return result of the visit
+     */
+    R visitOther(final Command command);
+}
@@ -0,0 +1,82 @@
+package com.loxon.javachallenge.memory.codec;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Base of the flyweight views reading an encoded message in place.
+ * A view is reusable, wrapping another message only moves it, nothing is copied or allocated.
+ */
+abstract class BufferView {
+
+    ByteBuffer buffer;
+    int offset;
+    int end;
+    int position;
+
+    /**
+     * Starts reading a message.
+     */
+    final void start(final ByteBuffer buffer, final int offset) {
+        this.buffer = buffer;
+        this.offset = offset;
+        this.position = offset;
+    }
+
+    /**
+     * Offset of the message in the buffer.
+     * @return absolute offset of the type byte
+     */
+    public final int getOffset() {
+        return offset;
+    }
+
+    /**
+     * Number of bytes of the message.
+     * @return encoded length
+     */
+    public final int getEncodedLength() {
+        return end - offset;
+    }
+
+    final byte readByte() {
+        return buffer.get(position++);
+    }
+
+    /**
+     * Reads a varint at the cursor, throws {@link IndexOutOfBoundsException} at the end of the buffer.
+     */
+    final int readVarint() {
+        int value = 0;
+        for (int shift = 0; ; shift += 7) {
+            byte b = buffer.get(position++);
+            value |= (b & 0x7F) << shift;
+            if (b >= 0)
+                return value;
+            if (shift == 28)
+                throw new IllegalArgumentException("Malformed varint");
+        }
+    }
+
+    /**
+     * Skips the given number of varints, checking that they are well-formed.
+     */
+    final void skipVarints(final int count) {
+        for (int i = 0; i < count; i++) {
+            readVarint();
+        }
+    }
+
+    /**
+     * Checks a length read from the message against the rest of the buffer.
+     */
+    final int checkLength(final int length, final int bytesPerElement) throws MalformedMessageException {
+        if (length < 0 || (long) length * bytesPerElement > buffer.limit() - position)
+            throw new MalformedMessageException("Truncated message");
+        return length;
+    }
+
+    static MalformedMessageException malformed(final RuntimeException e) {
+        return new MalformedMessageException(e instanceof IndexOutOfBoundsException
+                ? "Truncated message" : e.getMessage());
+    }
+}
@@ -0,0 +1,171 @@
+package com.loxon.javachallenge.memory.codec;
+
+import com.loxon.javachallenge.memory.api.Player;
+import com.loxon.javachallenge.memory.api.communication.commands.CommandAllocate;
+import com.loxon.javachallenge.memory.api.communication.commands.CommandFortify;
+import com.loxon.javachallenge.memory.api.communication.commands.CommandFree;
+import com.loxon.javachallenge.memory.api.communication.commands.CommandRecover;
+import com.loxon.javachallenge.memory.api.communication.commands.CommandScan;
+import com.loxon.javachallenge.memory.api.communication.commands.CommandScanRange;
+import com.loxon.javachallenge.memory.api.communication.commands.CommandStats;
+import com.loxon.javachallenge.memory.api.communication.commands.CommandSwap;
+import com.loxon.javachallenge.memory.api.communication.general.Command;
+import com.loxon.javachallenge.memory.api.communication.general.CommandGeneral;
+
+import java.nio.ByteBuffer;
+import java.util.NoSuchElementException;
+
+/**
+ * Flyweight reading a command encoded by {@link MessageCodec} straight from the buffer.
+ * Cells are read with a cursor, without boxing them into a list.
+ * The position of the buffer is not used and not changed.
+ */
+public final class CommandView extends BufferView {
+
+    private byte type;
+    private int cellCount;
+    private int cellsOffset;
+    private int cellsRead;
+    private int scanCellCount;
+
+    /**
+     * Moves the view to a command.
+     * @param buffer buffer of the message
+     * @param offset absolute offset of the message
+     * @return this view
+     * @throws MalformedMessageException if the message is truncated or invalid
+     */
+    public CommandView wrap(final ByteBuffer buffer, final int offset) throws MalformedMessageException {
+        start(buffer, offset);
+        try {
+            type = readByte();
+            switch (type) {
+                case MessageCodec.ALLOCATE:
+                case MessageCodec.FREE:
+                case MessageCodec.RECOVER:
+                case MessageCodec.FORTIFY:
+                case MessageCodec.SWAP:
+                    cellCount = checkLength(readVarint(), 1);
+                    cellsOffset = position;
+                    skipVarints(cellCount);
+                    break;
+                case MessageCodec.SCAN:
+                    cellCount = 1;
+                    cellsOffset = position;
+                    skipVarints(1);
+                    break;
+                case MessageCodec.SCAN_RANGE:
+                    cellCount = 1;
+                    cellsOffset = position;
+                    skipVarints(1);
+                    scanCellCount = MessageCodec.unzigzag(readVarint());
+                    break;
+                case MessageCodec.STATS:
+                    cellCount = 0;
+                    cellsOffset = position;
+                    break;
+                default:
+                    throw new MalformedMessageException("Unknown command type: " + type);
+            }
+        } catch (IndexOutOfBoundsException | IllegalArgumentException e) {
+            throw malformed(e);
+        }
+        end = position;
+        rewind();
+        return this;
+    }
+
+    /**
+     * Type of the command, one of the command types of {@link MessageCodec}.
+     * @return type code
+     */
+    public byte getType() {
+        return type;
+    }
+
+    /**
+     * Number of cells of the command, 1 for scans.
+     * @return number of cells
+     */
+    public int getCellCount() {
+        return cellCount;
+    }
+
+    /**
+     * Requested number of cells of a range scan.
+     * @return cell count of the range
+     */
+    public int getScanCellCount() {
+        return scanCellCount;
+    }
+
+    /**
+     * Moves the cursor back to the first cell.
+     */
+    public void rewind() {
+        position = cellsOffset;
+        cellsRead = 0;
+    }
+
+    public boolean hasNextCell() {
+        return cellsRead < cellCount;
+    }
+
+    /**
+     * Reads the cell at the cursor.
+     * @return cell, {@link CommandGeneral#NO_CELL} if it is missing
+     */
+    public int nextCell() {
+        if (cellsRead == cellCount)
+            throw new NoSuchElementException();
+        cellsRead++;
+        return MessageCodec.cell(readVarint());
+    }
+
+    /**
+     * Copies the cells into an array.
+     * @param target array of at least {@link #getCellCount()} elements
+     * @return number of cells
+     */
+    public int getCells(final int[] target) {
+        rewind();
+        for (int i = 0; i < cellCount; i++) {
+            target[i] = nextCell();
+        }
+        return cellCount;
+    }
+
+    /**
+     * Materializes the command.
+     * @param player player of the command
+     * @return new command
+     */
+    public Command toCommand(final Player player) {
+        switch (type) {
+            case MessageCodec.ALLOCATE:
+                return new CommandAllocate(player, cells());
+            case MessageCodec.FREE:
+                return new CommandFree(player, cells());
+            case MessageCodec.RECOVER:
+                return new CommandRecover(player, cells());
+            case MessageCodec.FORTIFY:
+                return new CommandFortify(player, cells());
+            case MessageCodec.SWAP:
+                return new CommandSwap(player, cells());
+            case MessageCodec.SCAN:
+                rewind();
+                return new CommandScan(player, MessageCodec.nullable(nextCell()));
+            case MessageCodec.SCAN_RANGE:
+                rewind();
+                return new CommandScanRange(player, nextCell(), scanCellCount);
+            default:
+                return new CommandStats(player);
+        }
+    }
+
+    private int[] cells() {
+        int[] cells = new int[cellCount];
+        getCells(cells);
+        return cells;
+    }
+}
@@ -0,0 +1,15 @@
+package com.loxon.javachallenge.memory.codec;
+
+import java.io.IOException;
+
+/**
+ * Thrown when an encoded command or response is truncated or invalid.
+ */
+public class MalformedMessageException extends IOException {
+
+    private static final long serialVersionUID = 1L;
+
+    public MalformedMessageException(final String message) {
+        super(message);
+    }
+}
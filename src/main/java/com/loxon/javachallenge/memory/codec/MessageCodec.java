@@ -0,0 +1,420 @@
+package com.loxon.javachallenge.memory.codec;
+
+import com.loxon.javachallenge.memory.api.MemoryState;
+import com.loxon.javachallenge.memory.api.Player;
+import com.loxon.javachallenge.memory.api.communication.commands.CommandAllocate;
+import com.loxon.javachallenge.memory.api.communication.commands.CommandFortify;
+import com.loxon.javachallenge.memory.api.communication.commands.CommandFree;
+import com.loxon.javachallenge.memory.api.communication.commands.CommandRecover;
+import com.loxon.javachallenge.memory.api.communication.commands.CommandScan;
+import com.loxon.javachallenge.memory.api.communication.commands.CommandScanRange;
+import com.loxon.javachallenge.memory.api.communication.commands.CommandStats;
+import com.loxon.javachallenge.memory.api.communication.commands.CommandSwap;
+import com.loxon.javachallenge.memory.api.communication.commands.ResponseScan;
+import com.loxon.javachallenge.memory.api.communication.commands.ResponseScanRange;
+import com.loxon.javachallenge.memory.api.communication.commands.ResponseStats;
+import com.loxon.javachallenge.memory.api.communication.commands.ResponseSuccessList;
+import com.loxon.javachallenge.memory.api.communication.general.Command;
+import com.loxon.javachallenge.memory.api.communication.general.CommandGeneral;
+import com.loxon.javachallenge.memory.api.communication.general.CommandVisitor;
+import com.loxon.javachallenge.memory.api.communication.general.Response;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Binary encoding of the commands and responses of the game.
+ * <p>
+ * A message is a type byte followed by the fields of the type. The player is not encoded, it is given
+ * by the context, e.g. the connection or a handle in the journal. Counts are unsigned varints, cells are
+ * zigzag varints plus one, so 0 stands for a missing cell. Memory states are packed two per byte,
+ * low nibble first, as the ordinal plus one, 0 stands for a missing state.
+ * <pre>
+ * ALLOCATE, FREE, RECOVER, FORTIFY, SWAP  count, cells
+ * SCAN                                    cell
+ * SCAN_RANGE                              cell, count as zigzag varint
+ * STATS                                   -
+ *
+ * NO_RESPONSE                             -
+ * SUCCESS_LIST                            count, cells
+ * SCAN_RESULT, SCAN_RANGE_RESULT          first cell, count, packed states
+ * STATS_RESULT                            cell count, owned, free, allocated, corrupt, fortified, system cells,
+ *                                         remaining rounds
+ * </pre>
+ * Messages are encoded at the position of the buffer. Encoding throws
+ * {@link java.nio.BufferOverflowException} if the buffer is too small, the caller may retry with a larger one.
+ * Messages can be decoded into objects, or read in place with {@link CommandView} and {@link ResponseView}.
+ */
+public final class MessageCodec {
+
+    public static final byte ALLOCATE = 1;
+    public static final byte FREE = 2;
+    public static final byte RECOVER = 3;
+    public static final byte FORTIFY = 4;
+    public static final byte SWAP = 5;
+    public static final byte SCAN = 6;
+    public static final byte SCAN_RANGE = 7;
+    public static final byte STATS = 8;
+
+    public static final byte NO_RESPONSE = 0;
+    public static final byte SUCCESS_LIST = 1;
+    public static final byte SCAN_RESULT = 2;
+    public static final byte SCAN_RANGE_RESULT = 3;
+    public static final byte STATS_RESULT = 4;
+
+    static final MemoryState[] STATES = MemoryState.values();
+    private static final ThreadLocal<CommandEncoder> ENCODER = ThreadLocal.withInitial(CommandEncoder::new);
+
+    private MessageCodec() {
+    }
+
+    /**
+     * Writes an int as an unsigned varint, negative values take five bytes.
+     */
+    public static void putVarint(final ByteBuffer buffer, int value) {
+        while ((value & ~0x7F) != 0) {
+            buffer.put((byte) (value & 0x7F | 0x80));
+            value >>>= 7;
+        }
+        buffer.put((byte) value);
+    }
+
+    public static int getVarint(final ByteBuffer buffer) throws MalformedMessageException {
+        int value = 0;
+        for (int shift = 0; shift < 35; shift += 7) {
+            byte b = get(buffer);
+            value |= (b & 0x7F) << shift;
+            if (b >= 0)
+                return value;
+        }
+        throw new MalformedMessageException("Malformed varint");
+    }
+
+    /**
+     * Writes a signed int, small magnitudes take few bytes.
+     */
+    public static void putSigned(final ByteBuffer buffer, final int value) {
+        putVarint(buffer, value << 1 ^ value >> 31);
+    }
+
+    public static int getSigned(final ByteBuffer buffer) throws MalformedMessageException {
+        return unzigzag(getVarint(buffer));
+    }
+
+    /**
+     * Writes a cell, {@link CommandGeneral#NO_CELL} is the missing cell.
+     */
+    public static void putCell(final ByteBuffer buffer, final int cell) {
+        putVarint(buffer, cellCode(cell));
+    }
+
+    public static int getCell(final ByteBuffer buffer) throws MalformedMessageException {
+        return cell(getVarint(buffer));
+    }
+
+    public static void putString(final ByteBuffer buffer, final String value) {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        putVarint(buffer, bytes.length);
+        buffer.put(bytes);
+    }
+
+    public static String getString(final ByteBuffer buffer) throws MalformedMessageException {
+        byte[] bytes = new byte[length(buffer, 1)];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Encodes a command without its player.
+     * @throws IllegalArgumentException if the command type is not supported
+     */
+    public static void encode(final ByteBuffer buffer, final Command command) {
+        CommandEncoder encoder = ENCODER.get();
+        encoder.buffer = buffer;
+        try {
+            command.accept(encoder);
+        } finally {
+            encoder.buffer = null;
+        }
+    }
+
+    /**
+     * Decodes a command.
+     * @param player player of the command
+     * @return new command
+     * @throws MalformedMessageException if the message is truncated or invalid
+     */
+    public static Command decodeCommand(final ByteBuffer buffer, final Player player) throws MalformedMessageException {
+        byte type = get(buffer);
+        switch (type) {
+            case ALLOCATE:
+                return new CommandAllocate(player, getCells(buffer));
+            case FREE:
+                return new CommandFree(player, getCells(buffer));
+            case RECOVER:
+                return new CommandRecover(player, getCells(buffer));
+            case FORTIFY:
+                return new CommandFortify(player, getCells(buffer));
+            case SWAP:
+                return new CommandSwap(player, getCells(buffer));
+            case SCAN:
+                return new CommandScan(player, nullable(getCell(buffer)));
+            case SCAN_RANGE:
+                int firstCell = getCell(buffer);
+                return new CommandScanRange(player, firstCell, getSigned(buffer));
+            case STATS:
+                return new CommandStats(player);
+            default:
+                throw new MalformedMessageException("Unknown command type: " + type);
+        }
+    }
+
+    /**
+     * Encodes a response without its player, null stands for no response.
+     * @throws IllegalArgumentException if the response type is not supported
+     */
+    public static void encode(final ByteBuffer buffer, final Response response) {
+        if (response == null) {
+            buffer.put(NO_RESPONSE);
+        } else if (response instanceof ResponseSuccessList) {
+            buffer.put(SUCCESS_LIST);
+            List<Integer> cells = ((ResponseSuccessList) response).getSuccessCells();
+            putVarint(buffer, cells.size());
+            for (int i = 0; i < cells.size(); i++) {
+                Integer cell = cells.get(i);
+                putCell(buffer, cell == null ? CommandGeneral.NO_CELL : cell);
+            }
+        } else if (response instanceof ResponseScan) {
+            buffer.put(SCAN_RESULT);
+            ResponseScan scan = (ResponseScan) response;
+            putCell(buffer, scan.getFirstCell());
+            List<MemoryState> states = scan.getStates();
+            putVarint(buffer, states.size());
+            for (int i = 0; i < states.size(); i += 2) {
+                int high = i + 1 < states.size() ? stateCode(states.get(i + 1)) : 0;
+                buffer.put((byte) (stateCode(states.get(i)) | high << 4));
+            }
+        } else if (response instanceof ResponseScanRange) {
+            buffer.put(SCAN_RANGE_RESULT);
+            ResponseScanRange scan = (ResponseScanRange) response;
+            putCell(buffer, scan.getFirstCell());
+            int count = scan.getCellCount();
+            byte[] states = scan.getStates();
+            putVarint(buffer, count);
+            for (int i = 0; i < count; i += 2) {
+                int high = i + 1 < count ? states[i + 1] + 1 : 0;
+                buffer.put((byte) (states[i] + 1 | high << 4));
+            }
+        } else if (response instanceof ResponseStats) {
+            buffer.put(STATS_RESULT);
+            ResponseStats stats = (ResponseStats) response;
+            putVarint(buffer, stats.getCellCount());
+            putVarint(buffer, stats.getOwnedCells());
+            putVarint(buffer, stats.getFreeCells());
+            putVarint(buffer, stats.getAllocatedCells());
+            putVarint(buffer, stats.getCorruptCells());
+            putVarint(buffer, stats.getFortifiedCells());
+            putVarint(buffer, stats.getSystemCells());
+            putVarint(buffer, stats.getRemainingRounds());
+        } else {
+            throw new IllegalArgumentException("Unsupported response type: " + response.getClass().getName());
+        }
+    }
+
+    /**
+     * Decodes a response.
+     * @param player player of the response
+     * @return new response, null if no response was encoded
+     * @throws MalformedMessageException if the message is truncated or invalid
+     */
+    public static Response decodeResponse(final ByteBuffer buffer, final Player player)
+            throws MalformedMessageException {
+        byte type = get(buffer);
+        switch (type) {
+            case NO_RESPONSE:
+                return null;
+            case SUCCESS_LIST: {
+                int count = length(buffer, 1);
+                List<Integer> cells = new ArrayList<>(count);
+                for (int i = 0; i < count; i++) {
+                    cells.add(nullable(getCell(buffer)));
+                }
+                return new ResponseSuccessList(player, cells);
+            }
+            case SCAN_RESULT: {
+                int firstCell = getCell(buffer);
+                int count = stateCount(buffer);
+                List<MemoryState> states = new ArrayList<>(count);
+                for (int i = 0; i < count; i++) {
+                    int code = state(buffer.get(buffer.position() + (i >>> 1)), i);
+                    states.add(code == 0 ? null : STATES[code - 1]);
+                }
+                buffer.position(buffer.position() + (count + 1 >>> 1));
+                return new ResponseScan(player, firstCell, states);
+            }
+            case SCAN_RANGE_RESULT: {
+                int firstCell = getCell(buffer);
+                int count = stateCount(buffer);
+                byte[] states = new byte[count];
+                for (int i = 0; i < count; i++) {
+                    int code = state(buffer.get(buffer.position() + (i >>> 1)), i);
+                    if (code == 0)
+                        throw new MalformedMessageException("Missing state in a range scan");
+                    states[i] = (byte) (code - 1);
+                }
+                buffer.position(buffer.position() + (count + 1 >>> 1));
+                return new ResponseScanRange(player, firstCell, states, count);
+            }
+            case STATS_RESULT: {
+                ResponseStats stats = new ResponseStats(player);
+                stats.setCellCount(getVarint(buffer));
+                stats.setOwnedCells(getVarint(buffer));
+                stats.setFreeCells(getVarint(buffer));
+                stats.setAllocatedCells(getVarint(buffer));
+                stats.setCorruptCells(getVarint(buffer));
+                stats.setFortifiedCells(getVarint(buffer));
+                stats.setSystemCells(getVarint(buffer));
+                stats.setRemainingRounds(getVarint(buffer));
+                return stats;
+            }
+            default:
+                throw new MalformedMessageException("Unknown response type: " + type);
+        }
+    }
+
+    static int cellCode(final int cell) {
+        return cell == CommandGeneral.NO_CELL ? 0 : (cell << 1 ^ cell >> 31) + 1;
+    }
+
+    static int cell(final int code) {
+        return code == 0 ? CommandGeneral.NO_CELL : unzigzag(code - 1);
+    }
+
+    static int unzigzag(final int value) {
+        return value >>> 1 ^ -(value & 1);
+    }
+
+    /**
+     * Nibble of a packed state.
+     * @param packed byte of the state
+     * @param index index of the state
+     * @return state code, the ordinal plus one, 0 for a missing state
+     * @throws MalformedMessageException if the code is not a state
+     */
+    static int state(final byte packed, final int index) throws MalformedMessageException {
+        int code = (index & 1) == 0 ? packed & 0x0F : packed >>> 4 & 0x0F;
+        if (code > STATES.length)
+            throw new MalformedMessageException("Invalid memory state code: " + code);
+        return code;
+    }
+
+    static Integer nullable(final int cell) {
+        return cell == CommandGeneral.NO_CELL ? null : cell;
+    }
+
+    private static int stateCode(final MemoryState state) {
+        return state == null ? 0 : state.ordinal() + 1;
+    }
+
+    private static byte get(final ByteBuffer buffer) throws MalformedMessageException {
+        if (!buffer.hasRemaining())
+            throw new MalformedMessageException("Truncated message");
+        return buffer.get();
+    }
+
+    /**
+     * Reads a count of elements, checking that the buffer holds them.
+     */
+    private static int length(final ByteBuffer buffer, final int elementSize) throws MalformedMessageException {
+        int length = getVarint(buffer);
+        if (length < 0 || length > buffer.remaining() / elementSize)
+            throw new MalformedMessageException("Truncated message");
+        return length;
+    }
+
+    private static int stateCount(final ByteBuffer buffer) throws MalformedMessageException {
+        int count = getVarint(buffer);
+        if (count < 0 || (count + 1 >>> 1) > buffer.remaining())
+            throw new MalformedMessageException("Truncated message");
+        return count;
+    }
+
+    private static int[] getCells(final ByteBuffer buffer) throws MalformedMessageException {
+        int[] cells = new int[length(buffer, 1)];
+        for (int i = 0; i < cells.length; i++) {
+            cells[i] = getCell(buffer);
+        }
+        return cells;
+    }
+
+    /**
+     * Encoder of the commands, one per thread and pointed at the buffer of each message,
+     * so encoding does not allocate.
+     */
+    private static final class CommandEncoder implements CommandVisitor<Void> {
+        private ByteBuffer buffer;
+
+        private Void general(final byte type, final CommandGeneral command) {
+            buffer.put(type);
+            int[] cells = command.getCellArray();
+            putVarint(buffer, cells.length);
+            for (int cell : cells) {
+                putCell(buffer, cell);
+            }
+            return null;
+        }
+
+        @Override
+        public Void visitAllocate(final CommandAllocate command) {
+            return general(ALLOCATE, command);
+        }
+
+        @Override
+        public Void visitFree(final CommandFree command) {
+            return general(FREE, command);
+        }
+
+        @Override
+        public Void visitRecover(final CommandRecover command) {
+            return general(RECOVER, command);
+        }
+
+        @Override
+        public Void visitFortify(final CommandFortify command) {
+            return general(FORTIFY, command);
+        }
+
+        @Override
+        public Void visitSwap(final CommandSwap command) {
+            return general(SWAP, command);
+        }
+
+        @Override
+        public Void visitScan(final CommandScan command) {
+            buffer.put(SCAN);
+            putCell(buffer, command.getCell() == null ? CommandGeneral.NO_CELL : command.getCell());
+            return null;
+        }
+
+        @Override
+        public Void visitScanRange(final CommandScanRange command) {
+            buffer.put(SCAN_RANGE);
+            putCell(buffer, command.getCell() == null ? CommandGeneral.NO_CELL : command.getCell());
+            putSigned(buffer, command.getCellCount());
+            return null;
+        }
+
+        @Override
+        public Void visitStats(final CommandStats command) {
+            buffer.put(STATS);
+            return null;
+        }
+
+        @Override
+        public Void visitOther(final Command command) {
+            throw new IllegalArgumentException("Unsupported command type: " + command.getClass().getName());
+        }
+    }
+}
@@ -0,0 +1,243 @@
+package com.loxon.javachallenge.memory.codec;
+
+import com.loxon.javachallenge.memory.api.MemoryState;
+import com.loxon.javachallenge.memory.api.Player;
+import com.loxon.javachallenge.memory.api.communication.commands.ResponseScan;
+import com.loxon.javachallenge.memory.api.communication.commands.ResponseScanRange;
+import com.loxon.javachallenge.memory.api.communication.commands.ResponseStats;
+import com.loxon.javachallenge.memory.api.communication.commands.ResponseSuccessList;
+import com.loxon.javachallenge.memory.api.communication.general.CommandGeneral;
+import com.loxon.javachallenge.memory.api.communication.general.Response;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * Flyweight reading a response encoded by {@link MessageCodec} straight from the buffer.
+ * Cells of a success list are read with a cursor, states of a scan are read by index from the packed bytes.
+ * The position of the buffer is not used and not changed.
+ */
+public final class ResponseView extends BufferView {
+
+    private static final int CELL_COUNT = 0;
+    private static final int OWNED = 1;
+    private static final int FREE = 2;
+    private static final int ALLOCATED = 3;
+    private static final int CORRUPT = 4;
+    private static final int FORTIFIED = 5;
+    private static final int SYSTEM = 6;
+    private static final int REMAINING_ROUNDS = 7;
+
+    private final int[] stats = new int[8];
+    private byte type;
+    private int count;
+    private int firstCell;
+    private int dataOffset;
+    private int cellsRead;
+
+    /**
+     * Moves the view to a response.
+     * @param buffer buffer of the message
+     * @param offset absolute offset of the message
+     * @return this view
+     * @throws MalformedMessageException if the message is truncated or invalid
+     */
+    public ResponseView wrap(final ByteBuffer buffer, final int offset) throws MalformedMessageException {
+        start(buffer, offset);
+        count = 0;
+        firstCell = 0;
+        try {
+            type = readByte();
+            switch (type) {
+                case MessageCodec.NO_RESPONSE:
+                    dataOffset = position;
+                    break;
+                case MessageCodec.SUCCESS_LIST:
+                    count = checkLength(readVarint(), 1);
+                    dataOffset = position;
+                    skipVarints(count);
+                    break;
+                case MessageCodec.SCAN_RESULT:
+                case MessageCodec.SCAN_RANGE_RESULT:
+                    firstCell = MessageCodec.cell(readVarint());
+                    count = readVarint();
+                    if (count < 0 || (count + 1 >>> 1) > buffer.limit() - position)
+                        throw new MalformedMessageException("Truncated message");
+                    dataOffset = position;
+                    for (int i = 0; i < count; i++) {
+                        int code = MessageCodec.state(buffer.get(dataOffset + (i >>> 1)), i);
+                        if (code == 0 && type == MessageCodec.SCAN_RANGE_RESULT)
+                            throw new MalformedMessageException("Missing state in a range scan");
+                    }
+                    position += count + 1 >>> 1;
+                    break;
+                case MessageCodec.STATS_RESULT:
+                    dataOffset = position;
+                    for (int i = 0; i < stats.length; i++) {
+                        stats[i] = readVarint();
+                    }
+                    break;
+                default:
+                    throw new MalformedMessageException("Unknown response type: " + type);
+            }
+        } catch (IndexOutOfBoundsException | IllegalArgumentException e) {
+            throw malformed(e);
+        }
+        end = position;
+        rewind();
+        return this;
+    }
+
+    /**
+     * Type of the response, one of the response types of {@link MessageCodec}.
+     * @return type code
+     */
+    public byte getType() {
+        return type;
+    }
+
+    /**
+     * Number of cells of a success list, or the number of memory cells of stats.
+     * @return number of cells
+     */
+    public int getCellCount() {
+        return type == MessageCodec.STATS_RESULT ? stats[CELL_COUNT] : type == MessageCodec.SUCCESS_LIST ? count : 0;
+    }
+
+    /**
+     * Moves the cursor back to the first cell of a success list.
+     */
+    public void rewind() {
+        position = dataOffset;
+        cellsRead = 0;
+    }
+
+    public boolean hasNextCell() {
+        return type == MessageCodec.SUCCESS_LIST && cellsRead < count;
+    }
+
+    /**
+     * Reads the cell of a success list at the cursor.
+     * @return cell, {@link CommandGeneral#NO_CELL} if it is missing
+     */
+    public int nextCell() {
+        if (!hasNextCell())
+            throw new NoSuchElementException();
+        cellsRead++;
+        return MessageCodec.cell(readVarint());
+    }
+
+    /**
+     * First cell of a scan.
+     * @return index of the cell
+     */
+    public int getFirstCell() {
+        return firstCell;
+    }
+
+    /**
+     * Number of states of a scan.
+     * @return number of states
+     */
+    public int getStateCount() {
+        return type == MessageCodec.SCAN_RESULT || type == MessageCodec.SCAN_RANGE_RESULT ? count : 0;
+    }
+
+    /**
+     * Ordinal of a scanned state.
+     * @param index index of the state
+     * @return {@link MemoryState#ordinal()}, -1 for a missing state
+     */
+    public int getStateOrdinal(final int index) {
+        if (index < 0 || index >= getStateCount())
+            throw new IndexOutOfBoundsException("Index: " + index + ", size: " + getStateCount());
+        byte packed = buffer.get(dataOffset + (index >>> 1));
+        return ((index & 1) == 0 ? packed & 0x0F : packed >>> 4 & 0x0F) - 1;
+    }
+
+    /**
+     * Scanned state.
+     * @param index index of the state
+     * @return state, null if it is missing
+     */
+    public MemoryState getState(final int index) {
+        int ordinal = getStateOrdinal(index);
+        return ordinal < 0 ? null : MessageCodec.STATES[ordinal];
+    }
+
+    public int getOwnedCells() {
+        return stats[OWNED];
+    }
+
+    public int getFreeCells() {
+        return stats[FREE];
+    }
+
+    public int getAllocatedCells() {
+        return stats[ALLOCATED];
+    }
+
+    public int getCorruptCells() {
+        return stats[CORRUPT];
+    }
+
+    public int getFortifiedCells() {
+        return stats[FORTIFIED];
+    }
+
+    public int getSystemCells() {
+        return stats[SYSTEM];
+    }
+
+    public int getRemainingRounds() {
+        return stats[REMAINING_ROUNDS];
+    }
+
+    /**
+     * Materializes the response.
+     * @param player player of the response
+     * @return new response, null if there was no response
+     */
+    public Response toResponse(final Player player) {
+        switch (type) {
+            case MessageCodec.SUCCESS_LIST: {
+                List<Integer> cells = new ArrayList<>(count);
+                rewind();
+                while (hasNextCell()) {
+                    cells.add(MessageCodec.nullable(nextCell()));
+                }
+                return new ResponseSuccessList(player, cells);
+            }
+            case MessageCodec.SCAN_RESULT: {
+                List<MemoryState> states = new ArrayList<>(count);
+                for (int i = 0; i < count; i++) {
+                    states.add(getState(i));
+                }
+                return new ResponseScan(player, firstCell, states);
+            }
+            case MessageCodec.SCAN_RANGE_RESULT: {
+                byte[] states = new byte[count];
+                for (int i = 0; i < count; i++) {
+                    states[i] = (byte) getStateOrdinal(i);
+                }
+                return new ResponseScanRange(player, firstCell, states, count);
+            }
+            case MessageCodec.STATS_RESULT: {
+                ResponseStats response = new ResponseStats(player);
+                response.setCellCount(stats[CELL_COUNT]);
+                response.setOwnedCells(stats[OWNED]);
+                response.setFreeCells(stats[FREE]);
+                response.setAllocatedCells(stats[ALLOCATED]);
+                response.setCorruptCells(stats[CORRUPT]);
+                response.setFortifiedCells(stats[FORTIFIED]);
+                response.setSystemCells(stats[SYSTEM]);
+                response.setRemainingRounds(stats[REMAINING_ROUNDS]);
+                return response;
+            }
+            default:
+                return null;
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package com.loxon.javachallenge.memory.engine;
+
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+
+/**
+ * Storage of the cell states and owners of a board, addressed by long cell indices.
+ * States are {@link CellState} codes, owners are player handles.
+ */
+abstract class Board {
+
+    /**
+     * Number of cells.
+     */
+    abstract long size();
+
+    /**
+     * Whether the cells are kept outside of the heap. Structures sized to the board follow it.
+     */
+    abstract boolean isOffHeap();
+
+    abstract byte state(long cell);
+
+    abstract int owner(long cell);
+
+    abstract void setState(long cell, byte state);
+
+    abstract void setOwner(long cell, int owner);
+
+    /**
+     * Copies the states of the cells starting at the given one into the remaining space of the target.
+     */
+    abstract void getStates(long from, ByteBuffer target);
+
+    /**
+     * Sets the states of the cells starting at the given one from the remaining bytes of the source.
+     */
+    abstract void putStates(long from, ByteBuffer source);
+
+    /**
+     * Copies the owners of the cells starting at the given one into the remaining space of the target.
+     */
+    abstract void getOwners(long from, IntBuffer target);
+
+    /**
+     * Sets the owners of the cells starting at the given one from the remaining ints of the source.
+     */
+    abstract void putOwners(long from, IntBuffer source);
+}
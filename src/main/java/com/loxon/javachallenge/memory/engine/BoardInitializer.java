@@ -0,0 +1,18 @@
+package com.loxon.javachallenge.memory.engine;
+
+/**
+ * Supplies the initial cell states of a board in chunks, so large boards can be set up
+ * without building a list of the states.
+ */
+@FunctionalInterface
+public interface BoardInitializer {
+
+    /**
+     * Fills the states of a run of cells.
+     * @param firstCell index of the first cell of the run
+     * @param states {@link CellState} codes to fill, element i is the state of cell firstCell + i.
+     *               The elements are {@link CellState#FREE} when called.
+     * @param count number of cells of the run
+     */
+    void initialize(long firstCell, byte[] states, int count);
+}
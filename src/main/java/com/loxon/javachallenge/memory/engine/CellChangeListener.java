@@ -0,0 +1,14 @@
+package com.loxon.javachallenge.memory.engine;
+
+/**
+ * Receives the cell transitions of a {@link PackedGame}, see {@link PackedGame#addChangeListener(CellChangeListener)}.
+ */
+@FunctionalInterface
+public interface CellChangeListener {
+
+    /**
+     * Called after every round and every restored snapshot on the thread driving the game.
+     * @param changes transitions, in the order they were made for each cell, only valid during the call
+     */
+    void cellsChanged(CellChanges changes);
+}
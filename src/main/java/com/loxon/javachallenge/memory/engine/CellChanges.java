@@ -0,0 +1,129 @@
+package com.loxon.javachallenge.memory.engine;
+
+import com.loxon.javachallenge.memory.api.MemoryState;
+import com.loxon.javachallenge.memory.api.Player;
+
+import java.util.Arrays;
+
+/**
+ * Cell transitions of a round. A cell may change more than once, the transitions of a cell are in the order
+ * they were made, so each one starts from the state the previous one left. Transitions of different cells
+ * are only in execution order for serial rounds: parallel rounds add them worker by worker.
+ * The instance is reused, it is only valid while it is passed to a {@link CellChangeListener}.
+ */
+public final class CellChanges {
+
+    private final PlayerRegistry players;
+    private int[] cells = new int[64];
+    private byte[] oldStates = new byte[64];
+    private byte[] newStates = new byte[64];
+    private int[] oldOwners = new int[64];
+    private int[] newOwners = new int[64];
+    private int size;
+    private int round;
+    private boolean rollback;
+
+    CellChanges(final PlayerRegistry players) {
+        this.players = players;
+    }
+
+    void add(final int cell, final byte oldState, final int oldOwner, final byte newState, final int newOwner) {
+        if (size == cells.length) {
+            int length = size * 2;
+            cells = Arrays.copyOf(cells, length);
+            oldStates = Arrays.copyOf(oldStates, length);
+            newStates = Arrays.copyOf(newStates, length);
+            oldOwners = Arrays.copyOf(oldOwners, length);
+            newOwners = Arrays.copyOf(newOwners, length);
+        }
+        cells[size] = cell;
+        oldStates[size] = oldState;
+        newStates[size] = newState;
+        oldOwners[size] = oldOwner;
+        newOwners[size] = newOwner;
+        size++;
+    }
+
+    void setRound(final int round, final boolean rollback) {
+        this.round = round;
+        this.rollback = rollback;
+    }
+
+    void clear() {
+        size = 0;
+    }
+
+    /**
+     * Round of the changes. For a rollback, the round the game was rolled back to.
+     * @return round number
+     */
+    public int getRound() {
+        return round;
+    }
+
+    /**
+     * Whether the changes were made by restoring a snapshot.
+     * @return true for a rollback
+     */
+    public boolean isRollback() {
+        return rollback;
+    }
+
+    /**
+     * Number of transitions.
+     * @return number of transitions
+     */
+    public int size() {
+        return size;
+    }
+
+    public int cell(final int index) {
+        return cells[check(index)];
+    }
+
+    public MemoryState oldState(final int index) {
+        return CellState.toMemoryState(oldStates[check(index)]);
+    }
+
+    public MemoryState newState(final int index) {
+        return CellState.toMemoryState(newStates[check(index)]);
+    }
+
+    /**
+     * Previous owner of the cell as a handle, {@link PackedGame#NO_OWNER} if it had none.
+     */
+    public int oldOwnerHandle(final int index) {
+        return oldOwners[check(index)];
+    }
+
+    /**
+     * New owner of the cell as a handle, {@link PackedGame#NO_OWNER} if it has none.
+     */
+    public int newOwnerHandle(final int index) {
+        return newOwners[check(index)];
+    }
+
+    /**
+     * Previous owner of the cell, null if it had none.
+     */
+    public Player oldOwner(final int index) {
+        return player(oldOwnerHandle(index));
+    }
+
+    /**
+     * New owner of the cell, null if it has none.
+     */
+    public Player newOwner(final int index) {
+        return player(newOwnerHandle(index));
+    }
+
+    private Player player(final int handle) {
+        return handle == PackedGame.NO_OWNER ? null : players.player(handle);
+    }
+
+    private int check(final int index) {
+        if (index < 0 || index >= size)
+            throw new IndexOutOfBoundsException("Index: " + index + ", size: " + size);
+        return index;
+    }
+}
@@ -0,0 +1,74 @@
+package com.loxon.javachallenge.memory.engine;
+
+import com.loxon.javachallenge.memory.api.MemoryState;
+
+/**
+ * Byte codes of the cell states stored on a packed board.
+ * Codes are the ordinals of the matching {@link MemoryState} constants.
+ */
+public final class CellState {
+
+    public static final byte SYSTEM = (byte) MemoryState.SYSTEM.ordinal();
+    public static final byte ALLOCATED = (byte) MemoryState.ALLOCATED.ordinal();
+    public static final byte FORTIFIED = (byte) MemoryState.FORTIFIED.ordinal();
+    public static final byte CORRUPT = (byte) MemoryState.CORRUPT.ordinal();
+    public static final byte FREE = (byte) MemoryState.FREE.ordinal();
+    public static final byte OWNED_ALLOCATED = (byte) MemoryState.OWNED_ALLOCATED.ordinal();
+    public static final byte OWNED_FORTIFIED = (byte) MemoryState.OWNED_FORTIFIED.ordinal();
+
+    /**
+     * Number of distinct state codes.
+     */
+    public static final int COUNT = MemoryState.values().length;
+
+    private static final MemoryState[] STATES = MemoryState.values();
+    private static final char[] SYMBOLS = {'#', 'a', 'f', 'x', '.', 'A', 'F'};
+
+    private CellState() {
+    }
+
+    /**
+     * Code of the given state.
+     * @param state memory state
+     * @return byte code
+     */
+    public static byte of(final MemoryState state) {
+        return (byte) state.ordinal();
+    }
+
+    /**
+     * State of the given code.
+     * @param code byte code
+     * @return memory state
+     */
+    public static MemoryState toMemoryState(final byte code) {
+        return STATES[code];
+    }
+
+    /**
+     * Single character standing for a state in compact visualizations:
+     * {@code #} system, {@code a} allocated, {@code f} fortified, {@code x} corrupt, {@code .} free,
+     * {@code A} and {@code F} for the owned states of a projection.
+     * @param code byte code
+     * @return character of the state
+     */
+    public static char symbol(final byte code) {
+        return SYMBOLS[code];
+    }
+
+    /**
+     * Projects a stored state to the view of a player.
+     * @param code stored state
+     * @param owned whether the cell is owned by the viewing player
+     * @return code as seen by the player
+     */
+    public static byte project(final byte code, final boolean owned) {
+        if (owned) {
+            if (code == ALLOCATED)
+                return OWNED_ALLOCATED;
+            if (code == FORTIFIED)
+                return OWNED_FORTIFIED;
+        }
+        return code;
+    }
+}
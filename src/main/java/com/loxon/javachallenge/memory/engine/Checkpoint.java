@@ -0,0 +1,170 @@
+package com.loxon.javachallenge.memory.engine;
+
+import com.loxon.javachallenge.memory.api.Player;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.UUID;
+
+/**
+ * Binary image of a {@link PackedGame}, in little-endian byte order:
+ * <ul>
+ *     <li>header: magic, version, cell count, rounds, current round, player count as ints,
+ *     then the length of the metadata as a long</li>
+ *     <li>metadata: players in handle order (id as two longs, name as int length and UTF-8 bytes),
+ *     then the state counters and the scoreboard as ints</li>
+ *     <li>cell states as bytes, then cell owners as ints, both starting at an 8-byte boundary</li>
+ * </ul>
+ * The counters are stored, so a restored game needs no pass over the board.
+ */
+final class Checkpoint {
+
+    private static final int MAGIC = 0x4D47434B;
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 32;
+    private static final int CHUNK = 1 << 20;
+    private static final long MAP_CHUNK = 1L << 30;
+
+    private Checkpoint() {
+    }
+
+    static void write(final PackedGame game, final Path file) throws IOException {
+        int players = game.players.size();
+        ByteBuffer metadata = ByteBuffer.allocate(1024).order(ByteOrder.LITTLE_ENDIAN);
+        for (int handle = 1; handle <= players; handle++) {
+            Player player = game.players.player(handle);
+            byte[] name = player.getName().getBytes(StandardCharsets.UTF_8);
+            metadata = ensure(metadata, 20 + name.length);
+            UUID id = player.getId();
+            metadata.putLong(id.getMostSignificantBits());
+            metadata.putLong(id.getLeastSignificantBits());
+            metadata.putInt(name.length);
+            metadata.put(name);
+        }
+        metadata = ensure(metadata, 4 * (CellState.COUNT + 5 * (players + 1)));
+        IntBuffer counters = intView(metadata);
+        game.counters.writeTo(counters, players);
+        game.scoreboard.writeTo(counters, players);
+        metadata.position(metadata.position() + counters.position() * 4);
+        metadata.flip();
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+            header.putInt(MAGIC).putInt(VERSION).putInt((int) game.board.size()).putInt(game.rounds)
+                    .putInt(game.currentRound).putInt(players).putLong(metadata.remaining());
+            header.flip();
+            writeFully(channel, header);
+            writeFully(channel, metadata);
+
+            long statesOffset = align(channel.position());
+            channel.position(statesOffset);
+            Board board = game.board;
+            ByteBuffer chunk = ByteBuffer.allocateDirect(CHUNK).order(ByteOrder.LITTLE_ENDIAN);
+            for (long from = 0; from < board.size(); from += CHUNK) {
+                int count = (int) Math.min(CHUNK, board.size() - from);
+                chunk.clear();
+                chunk.limit(count);
+                board.getStates(from, chunk);
+                chunk.flip();
+                writeFully(channel, chunk);
+            }
+
+            channel.position(align(statesOffset + board.size()));
+            for (long from = 0; from < board.size(); from += CHUNK / 4) {
+                int count = (int) Math.min(CHUNK / 4, board.size() - from);
+                chunk.clear();
+                IntBuffer owners = chunk.asIntBuffer();
+                owners.limit(count);
+                board.getOwners(from, owners);
+                chunk.limit(count * 4);
+                writeFully(channel, chunk);
+            }
+        }
+    }
+
+    static void read(final PackedGame game, final Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            if (channel.size() < HEADER_SIZE)
+                throw new IOException("Not a checkpoint image: " + file);
+            ByteBuffer header = map(channel, 0, HEADER_SIZE);
+            if (header.getInt() != MAGIC)
+                throw new IOException("Not a checkpoint image: " + file);
+            int version = header.getInt();
+            if (version != VERSION)
+                throw new IOException("Unsupported checkpoint version " + version + ": " + file);
+            int cellCount = header.getInt();
+            int rounds = header.getInt();
+            int currentRound = header.getInt();
+            int players = header.getInt();
+            long metadataLength = header.getLong();
+
+            long statesOffset = align(HEADER_SIZE + metadataLength);
+            long ownersOffset = align(statesOffset + cellCount);
+            if (channel.size() < ownersOffset + 4L * cellCount)
+                throw new IOException("Truncated checkpoint image: " + file);
+
+            ByteBuffer metadata = map(channel, HEADER_SIZE, metadataLength);
+            for (int handle = 1; handle <= players; handle++) {
+                UUID id = new UUID(metadata.getLong(), metadata.getLong());
+                byte[] name = new byte[metadata.getInt()];
+                metadata.get(name);
+                game.addPlayer(new Player(new String(name, StandardCharsets.UTF_8), () -> id));
+            }
+            IntBuffer counters = intView(metadata);
+            game.counters.readFrom(counters, players);
+            game.scoreboard.readFrom(counters, players);
+
+            Board board = game.newBoard(cellCount);
+            for (long from = 0; from < cellCount; from += MAP_CHUNK) {
+                int count = (int) Math.min(MAP_CHUNK, cellCount - from);
+                board.putStates(from, map(channel, statesOffset + from, count));
+            }
+            for (long from = 0; from < cellCount; from += MAP_CHUNK / 4) {
+                int count = (int) Math.min(MAP_CHUNK / 4, cellCount - from);
+                board.putOwners(from, map(channel, ownersOffset + from * 4, count * 4L).asIntBuffer());
+            }
+
+            game.setBoard(board);
+            game.rounds = rounds;
+            game.currentRound = currentRound;
+        }
+    }
+
+    private static ByteBuffer ensure(final ByteBuffer buffer, final int length) {
+        if (buffer.remaining() >= length)
+            return buffer;
+        ByteBuffer grown = ByteBuffer.allocate(Math.max(buffer.capacity() * 2, buffer.position() + length))
+                .order(ByteOrder.LITTLE_ENDIAN);
+        buffer.flip();
+        return grown.put(buffer);
+    }
+
+    private static IntBuffer intView(final ByteBuffer buffer) {
+        return buffer.slice().order(ByteOrder.LITTLE_ENDIAN).asIntBuffer();
+    }
+
+    private static MappedByteBuffer map(final FileChannel channel, final long position, final long length)
+            throws IOException {
+        MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, position, length);
+        buffer.order(ByteOrder.LITTLE_ENDIAN);
+        return buffer;
+    }
+
+    private static long align(final long position) {
+        return (position + 7) & ~7L;
+    }
+
+    private static void writeFully(final FileChannel channel, final ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+}
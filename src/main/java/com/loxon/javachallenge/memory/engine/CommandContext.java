@@ -0,0 +1,57 @@
+package com.loxon.javachallenge.memory.engine;
+
+import com.loxon.javachallenge.memory.api.Player;
+
+/**
+ * Access of a {@link CommandHandler} to the board while its command is executed.
+ * States are {@link CellState} codes, owners are player handles ({@link PackedGame#NO_OWNER} for unowned cells).
+ * Cells written through the context update the scores, the counters, the undo journal, the hash,
+ * the free-space index and the change feed like the writes of the built-in commands.
+ */
+public interface CommandContext {
+
+    /**
+     * Sender of the command.
+     */
+    Player getPlayer();
+
+    /**
+     * Owner handle of the sender.
+     */
+    int getHandle();
+
+    /**
+     * Number of cells of the board.
+     */
+    int getCellCount();
+
+    /**
+     * State code of a cell.
+     * @param cell valid index of the cell
+     */
+    byte getState(int cell);
+
+    /**
+     * Owner handle of a cell.
+     * @param cell valid index of the cell
+     */
+    int getOwner(int cell);
+
+    /**
+     * Checks whether a cell is accessed by more than one command of the round. The cells of
+     * {@link com.loxon.javachallenge.memory.api.communication.general.CommandGeneral} commands are counted,
+     * whatever their type.
+     * @param cell valid index of the cell
+     */
+    boolean isConflicting(int cell);
+
+    /**
+     * Writes a cell.
+     * @param cell valid index of the cell
+     * @param state new state code
+     * @param owner handle of the new owner, {@link PackedGame#NO_OWNER} for none
+     * @throws IndexOutOfBoundsException if the cell is not on the board
+     * @throws IllegalArgumentException if the state or the owner is invalid
+     */
+    void setCell(int cell, byte state, int owner);
+}
@@ -0,0 +1,19 @@
+package com.loxon.javachallenge.memory.engine;
+
+import com.loxon.javachallenge.memory.api.communication.general.Command;
+import com.loxon.javachallenge.memory.api.communication.general.Response;
+
+/**
+ * Executes a command type unknown to the engine, see {@link PackedGame#registerCommand(Class, CommandHandler)}.
+ * @param <C> handled command type
+ */
+public interface CommandHandler<C extends Command> {
+
+    /**
+     * Executes the command of a registered player.
+     * @param command command to execute
+     * @param context sender of the command and access to the board, valid during the call only
+     * @return response for the player, or null if there is none
+     */
+    Response execute(final C command, final CommandContext context);
+}
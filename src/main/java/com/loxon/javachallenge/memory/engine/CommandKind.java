@@ -0,0 +1,19 @@
+package com.loxon.javachallenge.memory.engine;
+
+/**
+ * Command types counted by {@link EngineMetrics}.
+ */
+public enum CommandKind {
+    ALLOCATE,
+    FREE,
+    RECOVER,
+    FORTIFY,
+    SWAP,
+    SCAN,
+    SCAN_RANGE,
+    STATS,
+    /**
+     * Command executed by a registered handler, or ignored if there is none.
+     */
+    OTHER
+}
@@ -0,0 +1,70 @@
+package com.loxon.javachallenge.memory.engine;
+
+import java.util.Arrays;
+
+/**
+ * Finds the cells accessed more than once in a round.
+ * Keeps a "touched once" and a "touched twice" bitset sized to the board, in the same memory as the board,
+ * and remembers the touched cells so that clearing costs O(touched cells).
+ */
+final class ConflictDetector {
+
+    private final int cellCount;
+    private final LongArray once;
+    private final LongArray twice;
+    private int[] touched = new int[64];
+    private int touchedCount;
+
+    ConflictDetector(final Board board) {
+        cellCount = (int) board.size();
+        int words = (cellCount + 63) >>> 6;
+        once = new LongArray(words, board.isOffHeap());
+        twice = new LongArray(words, board.isOffHeap());
+    }
+
+    /**
+     * Registers an access of a cell. Cells outside of the board are ignored.
+     * @param cell index of the cell
+     */
+    void touch(final int cell) {
+        if (cell < 0 || cell >= cellCount)
+            return;
+        int word = cell >>> 6;
+        long bit = 1L << cell;
+        long onceWord = once.get(word);
+        if ((onceWord & bit) != 0) {
+            twice.set(word, twice.get(word) | bit);
+            return;
+        }
+        once.set(word, onceWord | bit);
+        if (touchedCount == touched.length)
+            touched = Arrays.copyOf(touched, touchedCount * 2);
+        touched[touchedCount++] = cell;
+    }
+
+    /**
+     * Checks whether a cell was accessed multiple times.
+     * @param cell valid index of the cell
+     * @return true if the cell was touched at least twice
+     */
+    boolean isConflicting(final int cell) {
+        return (twice.get(cell >>> 6) & (1L << cell)) != 0;
+    }
+
+    /**
+     * Forgets every access, ready for the next round.
+     */
+    void clear() {
+        if (touchedCount > once.length()) {
+            once.clear();
+            twice.clear();
+        } else {
+            for (int i = 0; i < touchedCount; i++) {
+                int word = touched[i] >>> 6;
+                once.set(word, 0L);
+                twice.set(word, 0L);
+            }
+        }
+        touchedCount = 0;
+    }
+}
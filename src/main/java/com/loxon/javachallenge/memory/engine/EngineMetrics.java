@@ -0,0 +1,197 @@
+package com.loxon.javachallenge.memory.engine;
+
+import javax.management.InstanceAlreadyExistsException;
+import javax.management.InstanceNotFoundException;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Counters and round latencies of a {@link PackedGame}, see {@link PackedGame#setMetrics(EngineMetrics)}.
+ * The engine counts into plain per-worker arrays and publishes them here once per round,
+ * so the values can be read from any thread, e.g. through JMX after {@link #register(String)}.
+ */
+public final class EngineMetrics implements EngineMetricsMXBean {
+
+    private static final CommandKind[] KINDS = CommandKind.values();
+    private static final Rejection[] REJECTIONS = Rejection.values();
+
+    private final AtomicLong rounds = new AtomicLong();
+    private final AtomicLongArray commands = new AtomicLongArray(KINDS.length);
+    private final AtomicLongArray rejected = new AtomicLongArray(REJECTIONS.length);
+    private final AtomicLong corruptedCells = new AtomicLong();
+    private final LatencyHistogram roundLatency = new LatencyHistogram();
+    private ObjectName name;
+
+    /**
+     * Counts of a worker during a round, published by {@link #publish(Counts)}.
+     */
+    static final class Counts {
+        final long[] commands = new long[KINDS.length];
+        final long[] rejected = new long[REJECTIONS.length];
+        long corruptedCells;
+
+        void command(final CommandKind kind) {
+            commands[kind.ordinal()]++;
+        }
+
+        void reject(final Rejection rejection) {
+            rejected[rejection.ordinal()]++;
+        }
+    }
+
+    void publish(final Counts counts) {
+        for (int i = 0; i < counts.commands.length; i++) {
+            if (counts.commands[i] != 0) {
+                commands.addAndGet(i, counts.commands[i]);
+                counts.commands[i] = 0;
+            }
+        }
+        for (int i = 0; i < counts.rejected.length; i++) {
+            if (counts.rejected[i] != 0) {
+                rejected.addAndGet(i, counts.rejected[i]);
+                counts.rejected[i] = 0;
+            }
+        }
+        if (counts.corruptedCells != 0) {
+            corruptedCells.addAndGet(counts.corruptedCells);
+            counts.corruptedCells = 0;
+        }
+    }
+
+    void roundFinished(final long nanos) {
+        rounds.incrementAndGet();
+        roundLatency.record(nanos);
+    }
+
+    /**
+     * Registers the metrics on the platform MBean server.
+     * @param gameName value of the name key of the object name
+     * @throws JMException if the name is invalid or it is already registered
+     */
+    public synchronized void register(final String gameName) throws JMException {
+        if (name != null)
+            throw new InstanceAlreadyExistsException(name.toString());
+        ObjectName objectName = new ObjectName("com.loxon.javachallenge.memory:type=EngineMetrics,name="
+                + ObjectName.quote(gameName));
+        ManagementFactory.getPlatformMBeanServer().registerMBean(this, objectName);
+        name = objectName;
+    }
+
+    /**
+     * Removes the metrics from the platform MBean server, if they were registered.
+     * @throws JMException if removing fails
+     */
+    public synchronized void unregister() throws JMException {
+        if (name == null)
+            return;
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        try {
+            server.unregisterMBean(name);
+        } catch (InstanceNotFoundException e) {
+            // Already removed
+        }
+        name = null;
+    }
+
+    @Override
+    public long getRounds() {
+        return rounds.get();
+    }
+
+    /**
+     * Number of executed commands of a type.
+     * @param kind command type
+     * @return number of commands
+     */
+    public long getCommandCount(final CommandKind kind) {
+        return commands.get(kind.ordinal());
+    }
+
+    /**
+     * Number of ignored commands, or cells for {@link Rejection#INVALID_CELL}, of a reason.
+     * @param rejection reason
+     * @return number of rejections
+     */
+    public long getRejected(final Rejection rejection) {
+        return rejected.get(rejection.ordinal());
+    }
+
+    @Override
+    public Map<String, Long> getCommandCounts() {
+        Map<String, Long> counts = new LinkedHashMap<>();
+        for (CommandKind kind : KINDS) {
+            counts.put(kind.name(), getCommandCount(kind));
+        }
+        return counts;
+    }
+
+    @Override
+    public Map<String, Long> getRejectedCommands() {
+        Map<String, Long> counts = new LinkedHashMap<>();
+        for (Rejection rejection : REJECTIONS) {
+            counts.put(rejection.name(), getRejected(rejection));
+        }
+        return counts;
+    }
+
+    /**
+     * Number of cells corrupted because they were accessed by more than one command in a round.
+     * @return number of cells
+     */
+    @Override
+    public long getCorruptedCells() {
+        return corruptedCells.get();
+    }
+
+    /**
+     * Durations of {@link PackedGame#nextRound}.
+     * @return latency histogram
+     */
+    public LatencyHistogram getRoundLatency() {
+        return roundLatency;
+    }
+
+    @Override
+    public double getRoundLatencyMeanNanos() {
+        return roundLatency.getMean();
+    }
+
+    @Override
+    public long getRoundLatencyP50Nanos() {
+        return roundLatency.getValueAtPercentile(50);
+    }
+
+    @Override
+    public long getRoundLatencyP99Nanos() {
+        return roundLatency.getValueAtPercentile(99);
+    }
+
+    @Override
+    public long getRoundLatencyP999Nanos() {
+        return roundLatency.getValueAtPercentile(99.9);
+    }
+
+    @Override
+    public long getRoundLatencyMaxNanos() {
+        return roundLatency.getMax();
+    }
+
+    @Override
+    public void reset() {
+        rounds.set(0);
+        for (int i = 0; i < commands.length(); i++) {
+            commands.set(i, 0);
+        }
+        for (int i = 0; i < rejected.length(); i++) {
+            rejected.set(i, 0);
+        }
+        corruptedCells.set(0);
+        roundLatency.reset();
+    }
+}
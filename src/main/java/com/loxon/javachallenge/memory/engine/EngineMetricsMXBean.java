@@ -0,0 +1,29 @@
+package com.loxon.javachallenge.memory.engine;
+
+import java.util.Map;
+
+/**
+ * Management interface of {@link EngineMetrics}.
+ */
+public interface EngineMetricsMXBean {
+
+    long getRounds();
+
+    Map<String, Long> getCommandCounts();
+
+    Map<String, Long> getRejectedCommands();
+
+    long getCorruptedCells();
+
+    double getRoundLatencyMeanNanos();
+
+    long getRoundLatencyP50Nanos();
+
+    long getRoundLatencyP99Nanos();
+
+    long getRoundLatencyP999Nanos();
+
+    long getRoundLatencyMaxNanos();
+
+    void reset();
+}
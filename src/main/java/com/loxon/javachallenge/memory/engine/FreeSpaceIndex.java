@@ -0,0 +1,125 @@
+package com.loxon.javachallenge.memory.engine;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Index of the FREE cells of a board: a hierarchical bitmap of the free cells, one of the whole blocks
+ * with four free cells, and a Fenwick tree of the number of free cells per 64 cells.
+ * Finding the next free cell or block costs O(log64 cells), counting the free cells of a range O(log cells).
+ * Blocks cut by the end of the board are never free blocks. The index is kept in the same memory as the board.
+ */
+final class FreeSpaceIndex {
+
+    private static final int CHUNK = 1 << 14;
+
+    private HierarchicalBitmap cells = new HierarchicalBitmap(0, false);
+    private HierarchicalBitmap blocks = new HierarchicalBitmap(0, false);
+    private LongArray counts = new LongArray(1, false);
+    private int cellCount;
+    private int blockCount;
+
+    /**
+     * Rebuilds the index of a new board.
+     */
+    void reset(final Board board) {
+        cellCount = (int) board.size();
+        blockCount = cellCount >>> 2;
+        cells = new HierarchicalBitmap(cellCount, board.isOffHeap());
+        blocks = new HierarchicalBitmap(blockCount, board.isOffHeap());
+        byte[] chunk = new byte[Math.min(CHUNK, cellCount)];
+        for (int from = 0; from < cellCount; from += chunk.length) {
+            int count = Math.min(chunk.length, cellCount - from);
+            board.getStates(from, ByteBuffer.wrap(chunk, 0, count));
+            for (int i = 0; i < count; i++) {
+                if (chunk[i] == CellState.FREE)
+                    cells.set(from + i);
+            }
+        }
+        for (int block = 0; block < blockCount; block++) {
+            if (isBlockFree(block))
+                blocks.set(block);
+        }
+        // Build the Fenwick tree in place from the counts of the words
+        int words = (cellCount + 63) >>> 6;
+        counts = new LongArray(words + 1, board.isOffHeap());
+        for (int i = 1; i <= words; i++) {
+            long count = counts.get(i) + Long.bitCount(cells.word(i - 1));
+            counts.set(i, count);
+            int parent = i + (i & -i);
+            if (parent <= words)
+                counts.set(parent, counts.get(parent) + count);
+        }
+    }
+
+    /**
+     * Applies the transition of a cell.
+     */
+    void cellChanged(final int cell, final byte oldState, final byte newState) {
+        boolean wasFree = oldState == CellState.FREE;
+        if (wasFree == (newState == CellState.FREE))
+            return;
+        int delta;
+        if (wasFree) {
+            cells.clear(cell);
+            delta = -1;
+        } else {
+            cells.set(cell);
+            delta = 1;
+        }
+        for (int i = (cell >>> 6) + 1; i < counts.length(); i += i & -i) {
+            counts.set(i, counts.get(i) + delta);
+        }
+        int block = cell >>> 2;
+        if (block < blockCount) {
+            if (isBlockFree(block))
+                blocks.set(block);
+            else
+                blocks.clear(block);
+        }
+    }
+
+    private boolean isBlockFree(final int block) {
+        return (cells.word(block >>> 4) >>> (block << 2) & 0xF) == 0xF;
+    }
+
+    /**
+     * First free cell at or after the given one.
+     * @param fromCell first cell to check, not negative
+     * @return index of the cell, -1 if there is none
+     */
+    int nextFreeCell(final int fromCell) {
+        return cells.nextSetBit(fromCell);
+    }
+
+    /**
+     * First whole block of free cells at or after the given one.
+     * @param fromBlock first block to check, not negative
+     * @return index of the block, -1 if there is none
+     */
+    int nextFreeBlock(final int fromBlock) {
+        return blocks.nextSetBit(fromBlock);
+    }
+
+    /**
+     * Number of free cells of a range.
+     * @param fromCell first cell, inclusive
+     * @param toCell last cell, exclusive
+     */
+    int countFree(final int fromCell, final int toCell) {
+        return prefix(toCell) - prefix(fromCell);
+    }
+
+    /**
+     * Number of free cells before the given one.
+     */
+    private int prefix(final int cell) {
+        int word = cell >>> 6;
+        int count = 0;
+        for (int i = word; i > 0; i -= i & -i) {
+            count += (int) counts.get(i);
+        }
+        if ((cell & 63) != 0)
+            count += Long.bitCount(cells.word(word) & ((1L << cell) - 1));
+        return count;
+    }
+}
@@ -0,0 +1,68 @@
+package com.loxon.javachallenge.memory.engine;
+
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+
+/**
+ * Board kept in two primitive arrays on the heap, the default storage.
+ */
+final class HeapBoard extends Board {
+
+    private final byte[] states;
+    private final int[] owners;
+
+    HeapBoard(final int size) {
+        states = new byte[size];
+        owners = new int[size];
+    }
+
+    @Override
+    long size() {
+        return states.length;
+    }
+
+    @Override
+    boolean isOffHeap() {
+        return false;
+    }
+
+    @Override
+    byte state(final long cell) {
+        return states[(int) cell];
+    }
+
+    @Override
+    int owner(final long cell) {
+        return owners[(int) cell];
+    }
+
+    @Override
+    void setState(final long cell, final byte state) {
+        states[(int) cell] = state;
+    }
+
+    @Override
+    void setOwner(final long cell, final int owner) {
+        owners[(int) cell] = owner;
+    }
+
+    @Override
+    void getStates(final long from, final ByteBuffer target) {
+        target.put(states, (int) from, target.remaining());
+    }
+
+    @Override
+    void putStates(final long from, final ByteBuffer source) {
+        source.get(states, (int) from, source.remaining());
+    }
+
+    @Override
+    void getOwners(final long from, final IntBuffer target) {
+        target.put(owners, (int) from, target.remaining());
+    }
+
+    @Override
+    void putOwners(final long from, final IntBuffer source) {
+        source.get(owners, (int) from, source.remaining());
+    }
+}
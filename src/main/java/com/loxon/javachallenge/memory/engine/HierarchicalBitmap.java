@@ -0,0 +1,98 @@
+package com.loxon.javachallenge.memory.engine;
+
+import java.util.ArrayList;
+
+/**
+ * Bitset with a summary level per 64-fold: a bit of a level is set when the word below it is not empty.
+ * Finding the next set bit skips empty words a level at a time, so it costs O(log64 bits).
+ */
+final class HierarchicalBitmap {
+
+    /**
+     * Levels from the bits themselves up to a single word.
+     */
+    private final LongArray[] levels;
+    private final int size;
+
+    /**
+     * Creates an empty bitmap.
+     * @param size number of bits
+     * @param offHeap whether the words should be kept in direct buffers
+     */
+    HierarchicalBitmap(final int size, final boolean offHeap) {
+        this.size = size;
+        ArrayList<LongArray> levels = new ArrayList<>();
+        int bits = size;
+        do {
+            LongArray words = new LongArray((bits + 63) >>> 6, offHeap);
+            levels.add(words);
+            bits = words.length();
+        } while (bits > 1);
+        this.levels = levels.toArray(new LongArray[0]);
+    }
+
+    boolean get(final int index) {
+        return (levels[0].get(index >>> 6) & (1L << index)) != 0;
+    }
+
+    /**
+     * Word of the bits starting at the given multiple of 64.
+     */
+    long word(final int wordIndex) {
+        return levels[0].get(wordIndex);
+    }
+
+    void set(int index) {
+        for (LongArray words : levels) {
+            int word = index >>> 6;
+            long bits = words.get(word);
+            words.set(word, bits | 1L << index);
+            if (bits != 0)
+                return;
+            index = word;
+        }
+    }
+
+    void clear(int index) {
+        for (LongArray words : levels) {
+            int word = index >>> 6;
+            long bits = words.get(word) & ~(1L << index);
+            words.set(word, bits);
+            if (bits != 0)
+                return;
+            index = word;
+        }
+    }
+
+    /**
+     * Finds the first set bit at or after the given one.
+     * @param from first index to check, not negative
+     * @return index of the bit, -1 if there is none
+     */
+    int nextSetBit(final int from) {
+        if (from >= size)
+            return -1;
+        int level = 0;
+        int index = from;
+        while (true) {
+            LongArray words = levels[level];
+            int word = index >>> 6;
+            if (word >= words.length())
+                return -1;
+            long bits = words.get(word) & (-1L << index);
+            if (bits != 0) {
+                index = (word << 6) + Long.numberOfTrailingZeros(bits);
+                break;
+            }
+            if (level == levels.length - 1)
+                return -1;
+            level++;
+            index = word + 1;
+        }
+        while (level > 0) {
+            level--;
+            index = (index << 6) + Long.numberOfTrailingZeros(levels[level].get(index));
+        }
+        return index;
+    }
+}
@@ -0,0 +1,96 @@
+package com.loxon.javachallenge.memory.engine;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Log-linear histogram of durations in nanoseconds, in the style of HdrHistogram.
+ * Every power of two is split into {@link #SUB_BUCKETS} linear buckets, so recorded values
+ * keep about 3% relative precision over the whole range of longs.
+ * Recording is lock-free, reads may run concurrently with recording.
+ */
+public final class LatencyHistogram {
+
+    private static final int SUB_BITS = 5;
+    private static final int SUB_BUCKETS = 1 << SUB_BITS;
+
+    private static final int COUNT = 0;
+    private static final int SUM = 1;
+    private static final int MAX = 2;
+
+    private final AtomicLongArray counts = new AtomicLongArray((64 - SUB_BITS) * SUB_BUCKETS);
+    private final AtomicLongArray totals = new AtomicLongArray(3);
+
+    /**
+     * Records a duration.
+     * @param nanos duration, negative values are recorded as 0
+     */
+    public void record(final long nanos) {
+        long value = Math.max(0, nanos);
+        counts.incrementAndGet(index(value));
+        totals.incrementAndGet(COUNT);
+        totals.addAndGet(SUM, value);
+        long max;
+        while (value > (max = totals.get(MAX)) && !totals.compareAndSet(MAX, max, value)) {
+            // retry
+        }
+    }
+
+    public long getCount() {
+        return totals.get(COUNT);
+    }
+
+    public long getMax() {
+        return totals.get(MAX);
+    }
+
+    public double getMean() {
+        long count = getCount();
+        return count == 0 ? 0 : (double) totals.get(SUM) / count;
+    }
+
+    /**
+     * Upper bound of the bucket holding the value at a percentile.
+     * @param percentile percentile between 0 and 100
+     * @return duration in nanoseconds, 0 if nothing was recorded
+     */
+    public long getValueAtPercentile(final double percentile) {
+        long count = getCount();
+        if (count == 0)
+            return 0;
+        long rank = Math.max(1, (long) Math.ceil(percentile / 100 * count));
+        long seen = 0;
+        for (int i = 0; i < counts.length(); i++) {
+            seen += counts.get(i);
+            if (seen >= rank)
+                return Math.min(upperBound(i), getMax());
+        }
+        return getMax();
+    }
+
+    /**
+     * Clears every recorded value.
+     */
+    public void reset() {
+        for (int i = 0; i < counts.length(); i++) {
+            counts.set(i, 0);
+        }
+        for (int i = 0; i < totals.length(); i++) {
+            totals.set(i, 0);
+        }
+    }
+
+    private static int index(final long value) {
+        if (value < SUB_BUCKETS)
+            return (int) value;
+        int shift = 63 - Long.numberOfLeadingZeros(value) - SUB_BITS;
+        return shift * SUB_BUCKETS + (int) (value >>> shift);
+    }
+
+    private static long upperBound(final int index) {
+        if (index < SUB_BUCKETS)
+            return index;
+        int shift = index / SUB_BUCKETS - 1;
+        long top = index % SUB_BUCKETS + SUB_BUCKETS;
+        return ((top + 1) << shift) - 1;
+    }
+}
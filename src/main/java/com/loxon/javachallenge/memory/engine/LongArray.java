@@ -0,0 +1,77 @@
+package com.loxon.javachallenge.memory.engine;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.LongBuffer;
+import java.util.Arrays;
+
+/**
+ * Fixed-length array of longs kept either in a primitive array on the heap or in direct buffers next to an
+ * {@link OffHeapBoard}, so the structures sized to the board live in the same memory as the board.
+ * A direct buffer is addressed by an int, so the elements are split into chunks of 2^27 longs.
+ */
+final class LongArray {
+
+    private static final int SHIFT = 27;
+    private static final int MASK = (1 << SHIFT) - 1;
+
+    private final int length;
+    private final long[] heap;
+    private final LongBuffer[] chunks;
+
+    /**
+     * Allocates an array of zeros.
+     * @param length number of elements
+     * @param offHeap whether the elements should be kept in direct buffers
+     */
+    LongArray(final int length, final boolean offHeap) {
+        this.length = length;
+        if (!offHeap) {
+            heap = new long[length];
+            chunks = null;
+            return;
+        }
+        heap = null;
+        chunks = new LongBuffer[(length + MASK) >>> SHIFT];
+        for (int chunk = 0; chunk < chunks.length; chunk++) {
+            int chunkLength = Math.min(1 << SHIFT, length - (chunk << SHIFT));
+            chunks[chunk] = ByteBuffer.allocateDirect(chunkLength * 8).order(ByteOrder.nativeOrder()).asLongBuffer();
+        }
+    }
+
+    int length() {
+        return length;
+    }
+
+    boolean isOffHeap() {
+        return heap == null;
+    }
+
+    long get(final int index) {
+        if (heap != null)
+            return heap[index];
+        return chunks[index >>> SHIFT].get(index & MASK);
+    }
+
+    void set(final int index, final long value) {
+        if (heap != null)
+            heap[index] = value;
+        else
+            chunks[index >>> SHIFT].put(index & MASK, value);
+    }
+
+    /**
+     * Sets every element to zero.
+     */
+    void clear() {
+        if (heap != null) {
+            Arrays.fill(heap, 0L);
+            return;
+        }
+        for (LongBuffer chunk : chunks) {
+            for (int i = 0; i < chunk.capacity(); i++) {
+                chunk.put(i, 0L);
+            }
+        }
+    }
+}
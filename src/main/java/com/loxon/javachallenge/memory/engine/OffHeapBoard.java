@@ -0,0 +1,125 @@
+package com.loxon.javachallenge.memory.engine;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+
+/**
+ * Board kept in direct buffers outside of the heap, so its size is limited by the direct memory
+ * ({@code -XX:MaxDirectMemorySize}) instead of the heap, and the collector never copies or scans it.
+ * A buffer is addressed by an int, so the cells are split into chunks of 2^30 states and 2^28 owners.
+ */
+final class OffHeapBoard extends Board {
+
+    private static final int STATE_SHIFT = 30;
+    private static final int STATE_MASK = (1 << STATE_SHIFT) - 1;
+    private static final int OWNER_SHIFT = 28;
+    private static final int OWNER_MASK = (1 << OWNER_SHIFT) - 1;
+
+    private final long size;
+    private final ByteBuffer[] states;
+    private final IntBuffer[] owners;
+
+    /**
+     * Allocates a board of free, unowned cells.
+     * @param size number of cells
+     */
+    OffHeapBoard(final long size) {
+        this.size = size;
+        states = new ByteBuffer[(int) ((size + STATE_MASK) >>> STATE_SHIFT)];
+        for (int chunk = 0; chunk < states.length; chunk++) {
+            states[chunk] = ByteBuffer.allocateDirect(chunkLength(chunk, STATE_SHIFT));
+        }
+        owners = new IntBuffer[(int) ((size + OWNER_MASK) >>> OWNER_SHIFT)];
+        for (int chunk = 0; chunk < owners.length; chunk++) {
+            owners[chunk] = ByteBuffer.allocateDirect(chunkLength(chunk, OWNER_SHIFT) * 4)
+                    .order(ByteOrder.nativeOrder()).asIntBuffer();
+        }
+    }
+
+    private int chunkLength(final int chunk, final int shift) {
+        return (int) Math.min(1L << shift, size - ((long) chunk << shift));
+    }
+
+    @Override
+    long size() {
+        return size;
+    }
+
+    @Override
+    boolean isOffHeap() {
+        return true;
+    }
+
+    @Override
+    byte state(final long cell) {
+        return states[(int) (cell >>> STATE_SHIFT)].get((int) cell & STATE_MASK);
+    }
+
+    @Override
+    int owner(final long cell) {
+        return owners[(int) (cell >>> OWNER_SHIFT)].get((int) cell & OWNER_MASK);
+    }
+
+    @Override
+    void setState(final long cell, final byte state) {
+        states[(int) (cell >>> STATE_SHIFT)].put((int) cell & STATE_MASK, state);
+    }
+
+    @Override
+    void setOwner(final long cell, final int owner) {
+        owners[(int) (cell >>> OWNER_SHIFT)].put((int) cell & OWNER_MASK, owner);
+    }
+
+    @Override
+    void getStates(long from, final ByteBuffer target) {
+        while (target.hasRemaining()) {
+            ByteBuffer chunk = states[(int) (from >>> STATE_SHIFT)].duplicate();
+            chunk.position((int) from & STATE_MASK);
+            int count = Math.min(chunk.remaining(), target.remaining());
+            chunk.limit(chunk.position() + count);
+            target.put(chunk);
+            from += count;
+        }
+    }
+
+    @Override
+    void putStates(long from, final ByteBuffer source) {
+        while (source.hasRemaining()) {
+            ByteBuffer chunk = states[(int) (from >>> STATE_SHIFT)].duplicate();
+            chunk.position((int) from & STATE_MASK);
+            int count = Math.min(chunk.remaining(), source.remaining());
+            ByteBuffer part = source.duplicate();
+            part.limit(part.position() + count);
+            chunk.put(part);
+            source.position(source.position() + count);
+            from += count;
+        }
+    }
+
+    @Override
+    void getOwners(long from, final IntBuffer target) {
+        while (target.hasRemaining()) {
+            IntBuffer chunk = owners[(int) (from >>> OWNER_SHIFT)].duplicate();
+            chunk.position((int) from & OWNER_MASK);
+            int count = Math.min(chunk.remaining(), target.remaining());
+            chunk.limit(chunk.position() + count);
+            target.put(chunk);
+            from += count;
+        }
+    }
+
+    @Override
+    void putOwners(long from, final IntBuffer source) {
+        while (source.hasRemaining()) {
+            IntBuffer chunk = owners[(int) (from >>> OWNER_SHIFT)].duplicate();
+            chunk.position((int) from & OWNER_MASK);
+            int count = Math.min(chunk.remaining(), source.remaining());
+            IntBuffer part = source.duplicate();
+            part.limit(part.position() + count);
+            chunk.put(part);
+            source.position(source.position() + count);
+            from += count;
+        }
+    }
+}
@@ -0,0 +1,1146 @@
+package com.loxon.javachallenge.memory.engine;
+
+import com.loxon.javachallenge.memory.api.Game;
+import com.loxon.javachallenge.memory.api.MemoryState;
+import com.loxon.javachallenge.memory.api.Player;
+import com.loxon.javachallenge.memory.api.PlayerIdGenerator;
+import com.loxon.javachallenge.memory.api.PlayerScore;
+import com.loxon.javachallenge.memory.api.communication.commands.*;
+import com.loxon.javachallenge.memory.api.communication.general.Command;
+import com.loxon.javachallenge.memory.api.communication.general.CommandGeneral;
+import com.loxon.javachallenge.memory.api.communication.general.CommandVisitor;
+import com.loxon.javachallenge.memory.api.communication.general.Response;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Memory-allocation game keeping the board in primitive arrays, or in direct buffers with {@link #setOffHeap(boolean)}.
+ * Cell states are stored as {@link CellState} codes, owners as player handles
+ * (index of the player in registration order + 1, {@link #NO_OWNER} for unowned cells).
+ * On the heap a cell takes 5 bytes and two conflict bits, against the 8 bytes of references (16 without
+ * compressed oops) of a {@code List<MemoryState>} and an array of owner names: the gain is locality and comparing
+ * handles instead of names, not size. Off the heap nothing on the heap grows with the board.
+ */
+public class PackedGame implements Game {
+
+    /**
+     * Owner handle of unowned cells.
+     */
+    public static final int NO_OWNER = 0;
+
+    /**
+     * Default number of cells a range scan can return.
+     */
+    public static final int DEFAULT_SCAN_BUDGET = 256;
+
+    /**
+     * Maximum number of cells of a board. Commands address cells with ints,
+     * so boards end at the last whole block below {@link Integer#MAX_VALUE}.
+     */
+    public static final long MAX_CELLS = Integer.MAX_VALUE & ~3;
+
+    private static final int INITIALIZER_CHUNK = 1 << 16;
+
+    final PlayerRegistry players = new PlayerRegistry();
+    private PlayerIdGenerator playerIds = PlayerIdGenerator.SECURE;
+    private final HashMap<Class<?>, CommandHandler<?>> handlers = new HashMap<>();
+    private final Worker worker = new Worker(null);
+    Board board;
+    private int cellCount;
+    private boolean offHeap;
+    private ConflictDetector conflicts;
+    final Scoreboard scoreboard = new Scoreboard();
+    final StateCounters counters = new StateCounters();
+    private int scoredCells;
+    private boolean verifyScores;
+    private final ResponsePool responsePool = new ResponsePool();
+    private final ArrayList<Response> roundResponses = new ArrayList<>();
+    private boolean reuseResponses;
+    private int scanBudget = DEFAULT_SCAN_BUDGET;
+    private int[] handledRound = new int[1];
+    private ParallelRound parallelRound;
+    int rounds;
+    int currentRound = 1;
+    private int roundStamp = 1;
+    private final UndoJournal journal = new UndoJournal();
+    private boolean undoing;
+    private final ArrayList<CellChangeListener> changeListeners = new ArrayList<>();
+    private CellChanges changes;
+    private EngineMetrics metrics;
+    private ZobristHash zobrist;
+    private FreeSpaceIndex freeSpace;
+    private final EngineMetrics.Counts acceptCounts = new EngineMetrics.Counts();
+
+    /**
+     * Enables cross-checking the incrementally maintained scores against a full recount
+     * of the board on every {@link #getScores()} call. Meant for debugging only.
+     * @param verifyScores whether scores should be verified
+     */
+    public void setVerifyScores(final boolean verifyScores) {
+        this.verifyScores = verifyScores;
+    }
+
+    /**
+     * Enables the allocation-free round mode. The list returned by {@link #nextRound(Command...)}
+     * and the responses in it are reused, so they are only valid until the next round.
+     * @param reuseResponses whether response instances should be reused
+     */
+    public void setReuseResponses(final boolean reuseResponses) {
+        this.reuseResponses = reuseResponses;
+    }
+
+    /**
+     * Sets the number of cells a player can scan in a round with a {@link CommandScanRange}.
+     * Longer ranges are cut, but a range scan always returns at least one block.
+     * @param scanBudget number of cells, {@link #DEFAULT_SCAN_BUDGET} by default
+     */
+    public void setScanBudget(final int scanBudget) {
+        this.scanBudget = scanBudget;
+    }
+
+    /**
+     * Enables applying large rounds on multiple threads. Commands touching disjoint sets of blocks
+     * are executed concurrently, the result is the same as the one of the serial execution.
+     * @param pool pool executing the commands, null to execute every round on the calling thread
+     */
+    public void setParallelism(final ForkJoinPool pool) {
+        parallelRound = pool == null ? null : new ParallelRound(this, pool);
+    }
+
+    /**
+     * Keeps the board of the games started afterwards in direct buffers outside of the heap,
+     * so boards can be larger than the heap and collection pauses do not grow with the board.
+     * The structures sized to the board follow it off the heap: the conflict bits, the hash tree,
+     * the free-space index and the block table of parallel rounds. Nothing on the heap grows with the board,
+     * its size is limited by {@code -XX:MaxDirectMemorySize}. Cells are still addressed by ints,
+     * so a board has at most {@link #MAX_CELLS} cells either way.
+     * @param offHeap whether the board should be kept off the heap
+     */
+    public void setOffHeap(final boolean offHeap) {
+        this.offHeap = offHeap;
+    }
+
+    /**
+     * Sets the strategy generating the ids of the players registered afterwards.
+     * {@link PlayerIdGenerator#SEQUENTIAL} makes registering many players fast, but its ids can be predicted.
+     * @param playerIds id generator, {@link PlayerIdGenerator#SECURE} by default
+     */
+    public void setPlayerIdGenerator(final PlayerIdGenerator playerIds) {
+        this.playerIds = playerIds;
+    }
+
+    /**
+     * Adds a listener receiving the cell transitions of every round, so consumers can follow the board
+     * in O(changes). Transitions are not collected while there is no listener.
+     * @param listener listener to add
+     */
+    public void addChangeListener(final CellChangeListener listener) {
+        changeListeners.add(listener);
+        if (changes == null)
+            changes = new CellChanges(players);
+    }
+
+    /**
+     * Removes a listener added by {@link #addChangeListener(CellChangeListener)}.
+     * @param listener listener to remove
+     */
+    public void removeChangeListener(final CellChangeListener listener) {
+        changeListeners.remove(listener);
+        if (changeListeners.isEmpty())
+            changes = null;
+    }
+
+    /**
+     * Enables counting the commands, the rejections, the corrupted cells and the latency of the rounds.
+     * Nothing is counted while the metrics are not set.
+     * @param metrics metrics to update, null to disable
+     */
+    public void setMetrics(final EngineMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    /**
+     * Enables maintaining the Zobrist hash of the board on every cell write,
+     * so {@link #getHash()} and {@link #getHash(int, int)} do not need a pass over the board.
+     * @param hashing whether the hash should be maintained
+     */
+    public void setHashing(final boolean hashing) {
+        if (!hashing) {
+            zobrist = null;
+        } else if (zobrist == null) {
+            zobrist = new ZobristHash();
+            if (board != null)
+                zobrist.reset(board);
+        }
+    }
+
+    /**
+     * 64-bit Zobrist hash of the cell states and owners. Boards in the same state have the same hash
+     * regardless of how they got there, players are identified by registration order.
+     * Costs O(1) with {@link #setHashing(boolean)}, a pass over the board otherwise.
+     * @return hash of the board
+     */
+    public long getHash() {
+        if (zobrist != null)
+            return zobrist.hash();
+        return getHash(0, (cellCount + 3) >>> 2);
+    }
+
+    /**
+     * Zobrist hash of the cells of a block range, the hash of the board is the XOR of the hashes of its ranges.
+     * Costs O(log blocks) with {@link #setHashing(boolean)}, a pass over the range otherwise.
+     * @param fromBlock first block, inclusive
+     * @param toBlock last block, exclusive
+     * @return hash of the range
+     */
+    public long getHash(final int fromBlock, final int toBlock) {
+        int blocks = (cellCount + 3) >>> 2;
+        if (fromBlock < 0 || toBlock > blocks || fromBlock > toBlock)
+            throw new IndexOutOfBoundsException("Range [" + fromBlock + ", " + toBlock + ") of " + blocks + " blocks");
+        if (zobrist != null)
+            return zobrist.hash(fromBlock, toBlock);
+        long hash = 0;
+        for (int cell = fromBlock * 4; cell < Math.min(toBlock * 4, cellCount); cell++) {
+            hash ^= ZobristHash.key(cell, board.state(cell), board.owner(cell));
+        }
+        return hash;
+    }
+
+    /**
+     * Enables maintaining an index of the FREE cells and of the whole free blocks on every cell write,
+     * so {@link #nextFreeCell(int)}, {@link #nextFreeBlock(int)} and {@link #countFree(int, int)}
+     * do not need a pass over the board.
+     * @param indexing whether the free-space index should be maintained
+     */
+    public void setFreeSpaceIndexing(final boolean indexing) {
+        if (!indexing) {
+            freeSpace = null;
+        } else if (freeSpace == null) {
+            freeSpace = new FreeSpaceIndex();
+            if (board != null)
+                freeSpace.reset(board);
+        }
+    }
+
+    /**
+     * First FREE cell at or after the given one.
+     * Costs O(log cells) with {@link #setFreeSpaceIndexing(boolean)}, a pass over the board otherwise.
+     * @param fromCell first cell to check
+     * @return index of the cell, -1 if there is none
+     */
+    public int nextFreeCell(final int fromCell) {
+        if (fromCell < 0)
+            throw new IndexOutOfBoundsException("fromCell < 0: " + fromCell);
+        if (freeSpace != null)
+            return freeSpace.nextFreeCell(fromCell);
+        for (int cell = fromCell; cell < cellCount; cell++) {
+            if (board.state(cell) == CellState.FREE)
+                return cell;
+        }
+        return -1;
+    }
+
+    /**
+     * First block of four FREE cells at or after the given one. A block cut by the end of the board is never free.
+     * Costs O(log blocks) with {@link #setFreeSpaceIndexing(boolean)}, a pass over the board otherwise.
+     * @param fromBlock first block to check
+     * @return index of the block, -1 if there is none
+     */
+    public int nextFreeBlock(final int fromBlock) {
+        if (fromBlock < 0)
+            throw new IndexOutOfBoundsException("fromBlock < 0: " + fromBlock);
+        if (freeSpace != null)
+            return freeSpace.nextFreeBlock(fromBlock);
+        for (int block = fromBlock; block < cellCount / 4; block++) {
+            int first = block * 4;
+            if (board.state(first) == CellState.FREE && board.state(first + 1) == CellState.FREE
+                    && board.state(first + 2) == CellState.FREE && board.state(first + 3) == CellState.FREE)
+                return block;
+        }
+        return -1;
+    }
+
+    /**
+     * Number of FREE cells of a range.
+     * Costs O(log cells) with {@link #setFreeSpaceIndexing(boolean)}, a pass over the range otherwise.
+     * @param fromCell first cell, inclusive
+     * @param toCell last cell, exclusive
+     * @return number of free cells
+     */
+    public int countFree(final int fromCell, final int toCell) {
+        checkRange(fromCell, toCell);
+        if (freeSpace != null)
+            return freeSpace.countFree(fromCell, toCell);
+        int count = 0;
+        for (int cell = fromCell; cell < toCell; cell++) {
+            if (board.state(cell) == CellState.FREE)
+                count++;
+        }
+        return count;
+    }
+
+    /**
+     * Registers the handler of a command type the engine does not know.
+     * Commands of the type are executed with the modifications of the round, before the scans.
+     * Handlers read and write the board through a {@link CommandContext}, like the built-in commands.
+     * @param type exact class of the command
+     * @param handler handler of the command
+     * @param <C> command type
+     */
+    public <C extends Command> void registerCommand(final Class<C> type, final CommandHandler<? super C> handler) {
+        handlers.put(type, handler);
+    }
+
+    @Override
+    public Player registerPlayer(final String name) {
+        Player player = new Player(name, playerIds);
+        addPlayer(player);
+        return player;
+    }
+
+    /**
+     * Adds a new player to the registry and makes room for its counters.
+     * @param player player to add
+     */
+    void addPlayer(final Player player) {
+        int handle = players.register(player);
+        scoreboard.ensureCapacity(handle);
+        counters.ensureCapacity(handle);
+        responsePool.ensureCapacity(handle);
+        if (handledRound.length <= handle)
+            handledRound = Arrays.copyOf(handledRound, Math.max(handle + 1, handledRound.length * 2));
+    }
+
+    @Override
+    public void startGame(final List<MemoryState> initialMemory, final int rounds) {
+        startGame(initialMemory.size(), (firstCell, states, count) -> {
+            for (int i = 0; i < count; i++) {
+                states[i] = CellState.of(initialMemory.get((int) firstCell + i));
+            }
+        }, rounds);
+    }
+
+    /**
+     * Starts a game on a board filled chunk by chunk, without a list of the initial states.
+     * @param cellCount number of cells, at most {@link #MAX_CELLS}
+     * @param initializer supplier of the initial states, called with consecutive runs of cells
+     * @param rounds number of rounds
+     */
+    public void startGame(final long cellCount, final BoardInitializer initializer, final int rounds) {
+        if (cellCount < 0 || cellCount > MAX_CELLS)
+            throw new IllegalArgumentException("Invalid cell count: " + cellCount);
+        Board board = newBoard(cellCount);
+        byte[] chunk = new byte[(int) Math.min(INITIALIZER_CHUNK, cellCount)];
+        for (long from = 0; from < cellCount; from += chunk.length) {
+            int count = (int) Math.min(chunk.length, cellCount - from);
+            Arrays.fill(chunk, 0, count, CellState.FREE);
+            initializer.initialize(from, chunk, count);
+            for (int i = 0; i < count; i++) {
+                if (chunk[i] < 0 || chunk[i] >= CellState.COUNT)
+                    throw new IllegalArgumentException("Invalid state of cell " + (from + i) + ": " + chunk[i]);
+            }
+            board.putStates(from, ByteBuffer.wrap(chunk, 0, count));
+        }
+        setBoard(board);
+        scoreboard.reset();
+        counters.reset(board);
+        this.rounds = rounds;
+    }
+
+    /**
+     * Allocates a board of free, unowned cells on the heap or off the heap, see {@link #setOffHeap(boolean)}.
+     * @param cellCount number of cells, at most {@link #MAX_CELLS}
+     */
+    Board newBoard(final long cellCount) {
+        return offHeap ? new OffHeapBoard(cellCount) : new HeapBoard((int) cellCount);
+    }
+
+    /**
+     * Replaces the board. The counters have to be set up by the caller.
+     * @param board cell states and owners
+     */
+    void setBoard(final Board board) {
+        this.board = board;
+        cellCount = (int) board.size();
+        conflicts = new ConflictDetector(board);
+        scoredCells = cellCount / 4 * 4;
+        journal.clear();
+        if (zobrist != null)
+            zobrist.reset(board);
+        if (freeSpace != null)
+            freeSpace.reset(board);
+    }
+
+    /**
+     * Writes the board, the scores, the round number and the registered players into a checkpoint image.
+     * Settings of the game, such as registered command handlers, are not included.
+     * @param file image file, replaced if it exists
+     * @throws IOException if writing fails
+     */
+    public void writeCheckpoint(final Path file) throws IOException {
+        Checkpoint.write(this, file);
+    }
+
+    /**
+     * Creates a game from a checkpoint image written by {@link #writeCheckpoint(Path)}.
+     * The arrays of the image are copied in bulk from a mapped buffer, without decoding cells one by one.
+     * The restored players are equal to the ones of the checkpointed game, so they can keep on sending commands.
+     * @param file image file
+     * @return game ready to play the next round
+     * @throws IOException if reading fails or the file is not a checkpoint image
+     */
+    public static PackedGame readCheckpoint(final Path file) throws IOException {
+        return readCheckpoint(file, false);
+    }
+
+    /**
+     * Creates a game from a checkpoint image, see {@link #readCheckpoint(Path)}.
+     * @param file image file
+     * @param offHeap whether the board should be kept off the heap, see {@link #setOffHeap(boolean)}
+     * @return game ready to play the next round
+     * @throws IOException if reading fails or the file is not a checkpoint image
+     */
+    public static PackedGame readCheckpoint(final Path file, final boolean offHeap) throws IOException {
+        PackedGame game = new PackedGame();
+        game.setOffHeap(offHeap);
+        Checkpoint.read(game, file);
+        return game;
+    }
+
+    @Override
+    public List<Response> nextRound(final Command... requests) {
+        long start = metrics == null ? 0 : System.nanoTime();
+        List<Response> responses;
+        if (reuseResponses) {
+            roundResponses.clear();
+            responses = roundResponses;
+        } else {
+            responses = new ArrayList<>();
+        }
+
+        // Collect cells modified more than once
+        conflicts.clear();
+        for (Command command : requests) {
+            if (!(command instanceof CommandGeneral))
+                continue;
+            for (int cell : ((CommandGeneral) command).getCellArray()) {
+                conflicts.touch(cell);
+            }
+        }
+
+        if (parallelRound != null && requests.length >= ParallelRound.THRESHOLD) {
+            parallelRound.execute(requests, responses);
+        } else {
+            // Scans are executed after every modification, in the order they arrived
+            for (Command command : requests) {
+                if (!(command instanceof CommandScan))
+                    execute(command, responses);
+            }
+            for (Command command : requests) {
+                if (command instanceof CommandScan)
+                    execute(command, responses);
+            }
+        }
+        publishChanges(false);
+        currentRound++;
+        roundStamp++;
+        if (metrics != null)
+            publishMetrics(start);
+        return responses;
+    }
+
+    private void publishMetrics(final long start) {
+        metrics.publish(acceptCounts);
+        metrics.publish(worker.counts);
+        if (parallelRound != null)
+            parallelRound.publishMetrics(metrics);
+        metrics.roundFinished(System.nanoTime() - start);
+    }
+
+    private void execute(final Command command, final List<Response> responses) {
+        int handle = acceptHandle(command);
+        if (handle == NO_OWNER)
+            return;
+
+        Response response = worker.execute(command, handle);
+        if (response != null)
+            responses.add(response);
+    }
+
+    /**
+     * Checks whether the command can be executed in the current round, and marks its player as handled.
+     * @param command command to check
+     * @return handle of the player, or {@link #NO_OWNER} if the command must be ignored
+     */
+    int acceptHandle(final Command command) {
+        int handle = players.handle(command.getPlayer());
+        // Not registered
+        if (handle == NO_OWNER) {
+            if (metrics != null)
+                acceptCounts.reject(Rejection.UNREGISTERED_PLAYER);
+            return NO_OWNER;
+        }
+
+        // Only the first request of a player is handled
+        if (handledRound[handle] == roundStamp) {
+            if (metrics != null)
+                acceptCounts.reject(Rejection.DUPLICATE_PLAYER);
+            return NO_OWNER;
+        }
+        handledRound[handle] = roundStamp;
+        return handle;
+    }
+
+    /**
+     * Executes the command of an accepted player on the calling thread, updating the counters directly.
+     * @param command command to execute
+     * @param handle handle of the sender
+     * @return response, or null if there is none
+     */
+    Response executeSerial(final Command command, final int handle) {
+        return worker.execute(command, handle);
+    }
+
+    /**
+     * Takes a snapshot of the board, the scores and the round number in O(1).
+     * While a snapshot is live, every cell write is journaled, so restoring costs O(cells written since).
+     * Call {@link #discardSnapshots()} once the snapshots are no longer needed.
+     * @return snapshot of the current state
+     */
+    public Snapshot snapshot() {
+        return journal.mark(this, currentRound);
+    }
+
+    /**
+     * Rolls the game back to a snapshot. The snapshot stays live, so it can be restored again,
+     * snapshots taken after it are discarded.
+     * @param snapshot snapshot of this game
+     * @throws IllegalArgumentException if the snapshot was taken of another game or it was discarded
+     */
+    public void restore(final Snapshot snapshot) {
+        if (snapshot.game != this || !journal.isLive(snapshot))
+            throw new IllegalArgumentException("Snapshot is not live in this game.");
+        undoing = true;
+        try {
+            currentRound = journal.rollback(snapshot, this);
+        } finally {
+            undoing = false;
+        }
+        publishChanges(true);
+    }
+
+    /**
+     * Discards every snapshot and stops journaling the cell writes.
+     */
+    public void discardSnapshots() {
+        journal.clear();
+    }
+
+    @Override
+    public List<PlayerScore> getScores() {
+        ArrayList<PlayerScore> scores = new ArrayList<>(players.size());
+        for (int handle = 1; handle <= players.size(); handle++) {
+            scores.add(scoreboard.toScore(players.player(handle), handle));
+        }
+        if (verifyScores)
+            verifyScores(scores);
+        return scores;
+    }
+
+    private void verifyScores(final List<PlayerScore> scores) {
+        List<PlayerScore> expected = countScores();
+        for (int i = 0; i < expected.size(); i++) {
+            PlayerScore e = expected.get(i);
+            PlayerScore a = scores.get(i);
+            if (e.getOwnedCells() != a.getOwnedCells() || e.getOwnedBlocks() != a.getOwnedBlocks()
+                    || e.getFortifiedCells() != a.getFortifiedCells() || e.getTotalScore() != a.getTotalScore())
+                throw new IllegalStateException("Score of " + e.getPlayer().getName() + " is " + a + ", expected " + e);
+        }
+    }
+
+    /**
+     * Calculates the scores with a full pass over the board.
+     */
+    private List<PlayerScore> countScores() {
+        PlayerScore[] scores = new PlayerScore[players.size() + 1];
+        for (int handle = 1; handle <= players.size(); handle++) {
+            scores[handle] = new PlayerScore(players.player(handle));
+        }
+
+        for (int block = 0; block < cellCount / 4; block++) {
+            int first = block * 4;
+            int firstOwner = board.owner(first);
+            boolean ownedByTheSame = firstOwner != NO_OWNER;
+            for (int cell = first; cell < first + 4; cell++) {
+                int owner = board.owner(cell);
+                if (owner != firstOwner) {
+                    ownedByTheSame = false;
+                }
+                if (owner != NO_OWNER) {
+                    PlayerScore score = scores[owner];
+                    score.setOwnedCells(score.getOwnedCells() + 1);
+                    byte state = board.state(cell);
+                    if (state == CellState.ALLOCATED) {
+                        score.setTotalScore(score.getTotalScore() + 1);
+                    } else if (state == CellState.FORTIFIED) {
+                        score.setTotalScore(score.getTotalScore() + 1);
+                        score.setFortifiedCells(score.getFortifiedCells() + 1);
+                    }
+                }
+            }
+            if (ownedByTheSame) {
+                PlayerScore score = scores[firstOwner];
+                score.setOwnedBlocks(score.getOwnedBlocks() + 1);
+                score.setTotalScore(score.getTotalScore() + 4);
+            }
+        }
+
+        ArrayList<PlayerScore> result = new ArrayList<>(players.size());
+        for (int handle = 1; handle < scores.length; handle++) {
+            result.add(scores[handle]);
+        }
+        return result;
+    }
+
+    @Override
+    public String visualize() {
+        StringBuilder builder = new StringBuilder();
+        try {
+            visualize(builder);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return builder.toString();
+    }
+
+    /**
+     * Writes the same text as {@link #visualize()} without building it in memory.
+     * @param out destination, should be buffered
+     * @throws IOException if writing fails
+     */
+    public void visualize(final Appendable out) throws IOException {
+        out.append("\n\n");
+        visualize(out, 0, cellCount);
+        out.append("\n");
+    }
+
+    /**
+     * Writes the cells of a range in the format of {@link #visualize()}, eight cells per line.
+     * @param out destination, should be buffered
+     * @param fromCell first cell, inclusive
+     * @param toCell last cell, exclusive
+     * @throws IOException if writing fails
+     */
+    public void visualize(final Appendable out, final int fromCell, final int toCell) throws IOException {
+        checkRange(fromCell, toCell);
+        for (int i = fromCell; i < toCell; i++) {
+            out.append(Integer.toString(i));
+            out.append(": ");
+            out.append(CellState.toMemoryState(board.state(i)).toString());
+            out.append("(");
+            out.append(board.owner(i) == NO_OWNER ? "null" : players.player(board.owner(i)).getName());
+            out.append("), ");
+            if (i % 8 == 7)
+                out.append("\n");
+        }
+    }
+
+    /**
+     * Writes the cells of a range with one character per cell, see {@link CellState#symbol(byte)}.
+     * Lines start at multiples of the line width.
+     * @param out destination, should be buffered
+     * @param fromCell first cell, inclusive
+     * @param toCell last cell, exclusive
+     * @param lineWidth number of cells per line
+     * @throws IOException if writing fails
+     */
+    public void visualizeCompact(final Appendable out, final int fromCell, final int toCell, final int lineWidth)
+            throws IOException {
+        checkRange(fromCell, toCell);
+        if (lineWidth <= 0)
+            throw new IllegalArgumentException("Line width must be positive: " + lineWidth);
+        for (int i = fromCell; i < toCell; i++) {
+            out.append(CellState.symbol(board.state(i)));
+            if (i % lineWidth == lineWidth - 1 || i == toCell - 1)
+                out.append('\n');
+        }
+    }
+
+    private void checkRange(final int fromCell, final int toCell) {
+        if (fromCell < 0 || toCell > cellCount || fromCell > toCell)
+            throw new IndexOutOfBoundsException("Range [" + fromCell + ", " + toCell + ") of " + cellCount + " cells");
+    }
+
+    /**
+     * Applies the bookkeeping of a cell transition.
+     */
+    void cellChanged(final int cell, final byte oldState, final int oldOwner, final byte newState, final int newOwner) {
+        if (!undoing && journal.isRecording())
+            journal.record(cell, oldState, oldOwner);
+        if (changes != null && (oldState != newState || oldOwner != newOwner))
+            changes.add(cell, oldState, oldOwner, newState, newOwner);
+        counters.cellChanged(oldState, oldOwner, newState, newOwner);
+        if (zobrist != null)
+            zobrist.cellChanged(cell, oldState, oldOwner, newState, newOwner);
+        if (freeSpace != null)
+            freeSpace.cellChanged(cell, oldState, newState);
+        if (cell < scoredCells)
+            scoreboard.cellChanged(oldState, oldOwner, newState, newOwner);
+    }
+
+    /**
+     * Applies the bookkeeping of a change of the common owner of a block.
+     */
+    void blockChanged(final int oldOwner, final int newOwner) {
+        scoreboard.blockChanged(oldOwner, newOwner);
+    }
+
+    /**
+     * Writes back the previous value of a cell from the undo journal.
+     */
+    void undoCell(final int cell, final byte state, final int owner) {
+        worker.writeCell(cell, state, owner);
+    }
+
+    private void publishChanges(final boolean rollback) {
+        if (changes == null)
+            return;
+        changes.setRound(currentRound, rollback);
+        for (int i = 0; i < changeListeners.size(); i++) {
+            changeListeners.get(i).cellsChanged(changes);
+        }
+        changes.clear();
+    }
+
+    private int blockOwner(final int first) {
+        int owner = board.owner(first);
+        if (board.owner(first + 1) != owner || board.owner(first + 2) != owner || board.owner(first + 3) != owner)
+            return NO_OWNER;
+        return owner;
+    }
+
+    private boolean isIndexInvalid(final int index) {
+        return index < 0 || index >= cellCount;
+    }
+
+    /**
+     * Executes the commands of a round. The game has one worker for serial execution, parallel rounds
+     * use one per task. Workers of parallel rounds record their transitions into a log instead of
+     * updating the shared counters.
+     */
+    final class Worker implements CommandVisitor<Response>, CommandContext {
+        final EngineMetrics.Counts counts = new EngineMetrics.Counts();
+        private final TransitionLog log;
+        private final byte[] scannedBlock = new byte[4];
+        private int[] successCells = new int[2];
+        private Player player;
+        private int handle;
+
+        Worker(final TransitionLog log) {
+            this.log = log;
+        }
+
+        /**
+         * Executes the command of an accepted player.
+         * @param command command to execute
+         * @param handle handle of the sender
+         * @return response, or null if there is none
+         */
+        Response execute(final Command command, final int handle) {
+            this.player = command.getPlayer();
+            this.handle = handle;
+            return command.accept(this);
+        }
+
+        /**
+         * Replays the recorded transitions into the shared counters.
+         */
+        void drainLog() {
+            log.drainTo(PackedGame.this);
+        }
+
+        @Override
+        public Response visitAllocate(final CommandAllocate command) {
+            count(CommandKind.ALLOCATE);
+            return executeAllocate(command);
+        }
+
+        @Override
+        public Response visitFree(final CommandFree command) {
+            count(CommandKind.FREE);
+            return executeFree(command);
+        }
+
+        @Override
+        public Response visitRecover(final CommandRecover command) {
+            count(CommandKind.RECOVER);
+            return executeRecover(command);
+        }
+
+        @Override
+        public Response visitFortify(final CommandFortify command) {
+            count(CommandKind.FORTIFY);
+            return executeFortify(command);
+        }
+
+        @Override
+        public Response visitSwap(final CommandSwap command) {
+            count(CommandKind.SWAP);
+            return executeSwap(command);
+        }
+
+        @Override
+        public Response visitScan(final CommandScan command) {
+            count(CommandKind.SCAN);
+            return executeScan(command);
+        }
+
+        @Override
+        public Response visitScanRange(final CommandScanRange command) {
+            count(CommandKind.SCAN_RANGE);
+            return executeScanRange(command);
+        }
+
+        @Override
+        public Response visitStats(final CommandStats command) {
+            count(CommandKind.STATS);
+            return executeStats();
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public Response visitOther(final Command command) {
+            count(CommandKind.OTHER);
+            CommandHandler<Command> handler = (CommandHandler<Command>) handlers.get(command.getClass());
+            return handler == null ? null : handler.execute(command, this);
+        }
+
+        @Override
+        public Player getPlayer() {
+            return player;
+        }
+
+        @Override
+        public int getHandle() {
+            return handle;
+        }
+
+        @Override
+        public int getCellCount() {
+            return cellCount;
+        }
+
+        @Override
+        public byte getState(final int cell) {
+            checkCell(cell);
+            return board.state(cell);
+        }
+
+        @Override
+        public int getOwner(final int cell) {
+            checkCell(cell);
+            return board.owner(cell);
+        }
+
+        @Override
+        public boolean isConflicting(final int cell) {
+            checkCell(cell);
+            return conflicts.isConflicting(cell);
+        }
+
+        @Override
+        public void setCell(final int cell, final byte state, final int owner) {
+            checkCell(cell);
+            if (state < 0 || state >= CellState.COUNT)
+                throw new IllegalArgumentException("Invalid state of cell " + cell + ": " + state);
+            if (owner < NO_OWNER || owner > players.size())
+                throw new IllegalArgumentException("Invalid owner of cell " + cell + ": " + owner);
+            writeCell(cell, state, owner);
+        }
+
+        private void checkCell(final int cell) {
+            if (isIndexInvalid(cell))
+                throw new IndexOutOfBoundsException("Cell " + cell + " of " + cellCount + " cells");
+        }
+
+        void writeCell(final int cell, final byte state, final int owner) {
+            byte oldState = board.state(cell);
+            int oldOwner = board.owner(cell);
+            board.setState(cell, state);
+            if (oldOwner != owner) {
+                if (cell < scoredCells) {
+                    int first = cell & ~3;
+                    int blockOwnerBefore = blockOwner(first);
+                    board.setOwner(cell, owner);
+                    int blockOwnerAfter = blockOwner(first);
+                    if (blockOwnerBefore != blockOwnerAfter) {
+                        if (log == null)
+                            blockChanged(blockOwnerBefore, blockOwnerAfter);
+                        else
+                            log.block(blockOwnerBefore, blockOwnerAfter);
+                    }
+                } else {
+                    board.setOwner(cell, owner);
+                }
+            }
+            if (log == null)
+                cellChanged(cell, oldState, oldOwner, state, owner);
+            else
+                log.cell(cell, oldState, oldOwner, state, owner);
+        }
+
+        private void count(final CommandKind kind) {
+            if (metrics != null)
+                counts.command(kind);
+        }
+
+        private void reject(final Rejection rejection) {
+            if (metrics != null)
+                counts.reject(rejection);
+        }
+
+        private boolean isInvalidCell(final int cell) {
+            if (isIndexInvalid(cell)) {
+                reject(Rejection.INVALID_CELL);
+                return true;
+            }
+            return false;
+        }
+
+        private void corruptByMultipleAccess(final int cell, final int owner) {
+            writeCell(cell, CellState.CORRUPT, owner);
+            if (metrics != null)
+                counts.corruptedCells++;
+        }
+
+        private boolean checkAndExecuteMultipleAccess(final int cell) {
+            if (conflicts.isConflicting(cell)) {
+                if (board.state(cell) != CellState.FORTIFIED) {
+                    corruptByMultipleAccess(cell, NO_OWNER);
+                }
+                return true;
+            }
+            return false;
+        }
+
+        private int[] successBuffer(final int length) {
+            if (successCells.length < length)
+                successCells = new int[Math.max(length, successCells.length * 2)];
+            return successCells;
+        }
+
+        private ResponseSuccessList successList(final int count) {
+            if (reuseResponses)
+                return responsePool.successList(player, handle, successCells, count);
+            return new ResponseSuccessList(player, Arrays.copyOf(successCells, count), count);
+        }
+
+        private ResponseStats executeStats() {
+            ResponseStats resp = reuseResponses ? responsePool.stats(player, handle) : new ResponseStats(player);
+            resp.setCellCount(cellCount);
+            resp.setOwnedCells(counters.owned(handle));
+            resp.setFreeCells(counters.count(CellState.FREE));
+            resp.setAllocatedCells(counters.count(CellState.ALLOCATED));
+            resp.setCorruptCells(counters.count(CellState.CORRUPT));
+            resp.setFortifiedCells(counters.count(CellState.FORTIFIED));
+            resp.setSystemCells(counters.count(CellState.SYSTEM));
+            resp.setRemainingRounds(rounds - currentRound);
+            return resp;
+        }
+
+        private ResponseScan executeScan(final CommandScan command) {
+            Integer index = command.getCell();
+            if (index == null || isInvalidCell(index)) {
+                if (reuseResponses)
+                    return responsePool.scan(player, handle, -1, scannedBlock, 0);
+                return new ResponseScan(player, -1, Collections.emptyList());
+            }
+
+            int cell = (index / 4) * 4;
+            if (reuseResponses) {
+                for (int i = 0; i < 4; i++) {
+                    scannedBlock[i] = CellState.project(board.state(cell + i), board.owner(cell + i) == handle);
+                }
+                return responsePool.scan(player, handle, cell, scannedBlock, 4);
+            }
+
+            ArrayList<MemoryState> scanned = new ArrayList<>(4);
+            for (int i = cell; i < cell + 4; i++) {
+                scanned.add(CellState.toMemoryState(CellState.project(board.state(i), board.owner(i) == handle)));
+            }
+            return new ResponseScan(player, cell, scanned);
+        }
+
+        private ResponseScanRange executeScanRange(final CommandScanRange command) {
+            Integer index = command.getCell();
+            int count = 0;
+            int first = -1;
+            if (index != null && !isInvalidCell(index) && command.getCellCount() > 0) {
+                first = (index / 4) * 4;
+                long requested = (long) index + command.getCellCount() - first;
+                int budget = Math.max(4, scanBudget / 4 * 4);
+                count = (int) Math.min(Math.min((requested + 3) & ~3L, budget), cellCount - first);
+            }
+
+            ResponseScanRange resp = reuseResponses
+                    ? responsePool.scanRange(player, handle, count)
+                    : new ResponseScanRange(player, first, new byte[count], count);
+            byte[] scanned = resp.getStates();
+            for (int i = 0; i < count; i++) {
+                scanned[i] = CellState.project(board.state(first + i), board.owner(first + i) == handle);
+            }
+            resp.setFirstCell(first);
+            resp.setStates(scanned, count);
+            return resp;
+        }
+
+        private ResponseSuccessList executeAllocate(final CommandAllocate command) {
+            int[] cells = command.getCellArray();
+            int[] successCells = successBuffer(cells.length);
+            int count = 0;
+
+            if (cells.length == 0 || cells.length > 2) {
+                reject(Rejection.CELL_COUNT);
+                return successList(count);
+            }
+            if (isInvalidCell(cells[0]))
+                return successList(count);
+
+            int block = cells[0] / 4;
+            for (int i = 1; i < cells.length; i++) {
+                if (isInvalidCell(cells[i]))
+                    return successList(count);
+                // All cells must be in the same block
+                if (cells[i] / 4 != block) {
+                    reject(Rejection.CROSS_BLOCK);
+                    return successList(count);
+                }
+            }
+
+            for (int cell : cells) {
+                if (checkAndExecuteMultipleAccess(cell))
+                    continue;
+
+                byte state = board.state(cell);
+                if (state == CellState.FREE) {
+                    writeCell(cell, CellState.ALLOCATED, handle);
+                    successCells[count++] = cell;
+                } else if (state == CellState.ALLOCATED) {
+                    writeCell(cell, CellState.CORRUPT, NO_OWNER);
+                }
+            }
+            return successList(count);
+        }
+
+        private ResponseSuccessList executeFree(final CommandFree command) {
+            int[] cells = command.getCellArray();
+            int[] successCells = successBuffer(cells.length);
+            int count = 0;
+
+            if (cells.length > 2) {
+                reject(Rejection.CELL_COUNT);
+                return successList(count);
+            }
+
+            for (int cell : cells) {
+                if (isInvalidCell(cell) || checkAndExecuteMultipleAccess(cell))
+                    continue;
+
+                byte state = board.state(cell);
+                if (state == CellState.ALLOCATED || state == CellState.CORRUPT || state == CellState.FREE) {
+                    writeCell(cell, CellState.FREE, NO_OWNER);
+                    successCells[count++] = cell;
+                }
+            }
+            return successList(count);
+        }
+
+        private ResponseSuccessList executeRecover(final CommandRecover command) {
+            int[] cells = command.getCellArray();
+            int[] successCells = successBuffer(cells.length);
+            int count = 0;
+
+            if (cells.length > 2) {
+                reject(Rejection.CELL_COUNT);
+                return successList(count);
+            }
+
+            for (int cell : cells) {
+                if (isInvalidCell(cell) || checkAndExecuteMultipleAccess(cell))
+                    continue;
+
+                byte state = board.state(cell);
+                if (state == CellState.CORRUPT) {
+                    writeCell(cell, CellState.ALLOCATED, handle);
+                    successCells[count++] = cell;
+                } else if (state == CellState.ALLOCATED || state == CellState.FREE || board.owner(cell) != NO_OWNER) {
+                    writeCell(cell, CellState.CORRUPT, NO_OWNER);
+                }
+            }
+            return successList(count);
+        }
+
+        private ResponseSuccessList executeFortify(final CommandFortify command) {
+            int[] cells = command.getCellArray();
+            int[] successCells = successBuffer(cells.length);
+            int count = 0;
+            for (int cell : cells) {
+                if (isInvalidCell(cell) || checkAndExecuteMultipleAccess(cell))
+                    continue;
+
+                if (board.state(cell) == CellState.ALLOCATED) {
+                    writeCell(cell, CellState.FORTIFIED, board.owner(cell));
+                    successCells[count++] = cell;
+                }
+            }
+            return successList(count);
+        }
+
+        private ResponseSuccessList executeSwap(final CommandSwap command) {
+            int[] cells = command.getCellArray();
+            int[] successCells = successBuffer(cells.length);
+            int count = 0;
+
+            if (cells.length != 2) {
+                reject(Rejection.CELL_COUNT);
+                return successList(count);
+            }
+
+            int cell1 = cells[0];
+            int cell2 = cells[1];
+
+            if (isInvalidCell(cell1) || isInvalidCell(cell2))
+                return successList(count);
+
+            // Conflicting swaps corrupt both cells but leave the owners in place
+            if (conflicts.isConflicting(cell1) || conflicts.isConflicting(cell2)) {
+                if (board.state(cell1) != CellState.FORTIFIED)
+                    corruptByMultipleAccess(cell1, board.owner(cell1));
+                if (board.state(cell2) != CellState.FORTIFIED)
+                    corruptByMultipleAccess(cell2, board.owner(cell2));
+                return successList(count);
+            }
+
+            byte state1 = board.state(cell1);
+            byte state2 = board.state(cell2);
+            if (state1 != CellState.SYSTEM && state1 != CellState.FORTIFIED &&
+                    state2 != CellState.SYSTEM && state2 != CellState.FORTIFIED) {
+                int owner1 = board.owner(cell1);
+                writeCell(cell1, state2, board.owner(cell2));
+                writeCell(cell2, state1, owner1);
+                successCells[count++] = cell1;
+                successCells[count++] = cell2;
+            }
+            return successList(count);
+        }
+    }
+}
@@ -0,0 +1,272 @@
+package com.loxon.javachallenge.memory.engine;
+
+import com.loxon.javachallenge.memory.api.communication.commands.CommandAllocate;
+import com.loxon.javachallenge.memory.api.communication.commands.CommandFortify;
+import com.loxon.javachallenge.memory.api.communication.commands.CommandFree;
+import com.loxon.javachallenge.memory.api.communication.commands.CommandRecover;
+import com.loxon.javachallenge.memory.api.communication.commands.CommandScan;
+import com.loxon.javachallenge.memory.api.communication.commands.CommandSwap;
+import com.loxon.javachallenge.memory.api.communication.general.Command;
+import com.loxon.javachallenge.memory.api.communication.general.CommandGeneral;
+import com.loxon.javachallenge.memory.api.communication.general.Response;
+
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Executes the commands of a round on multiple threads.
+ * <p>
+ * Commands touching a common block are joined into a group, so different groups touch disjoint blocks
+ * and can be applied concurrently, each group in the original command order. Every conflicting cell is
+ * touched by the commands of a single group, so the board ends up in the same state as with serial
+ * execution. Counter updates are recorded by the workers and replayed on the calling thread.
+ * Stats commands and commands of registered handlers observe the board in the middle of the round,
+ * they are executed serially as barriers between parallel segments.
+ */
+final class ParallelRound {
+
+    /**
+     * Minimum number of commands in a round to execute it in parallel.
+     */
+    static final int THRESHOLD = 1024;
+
+    private final PackedGame game;
+    private final ForkJoinPool pool;
+    private final PackedGame.Worker[] workers;
+
+    private int[] order = new int[0];
+    private int[] handles = new int[0];
+    private Response[] results = new Response[0];
+    private int[] parent = new int[0];
+    private int[] groupStart = new int[0];
+    private int[] members = new int[0];
+    /**
+     * Stamp of the last grouping touching a block in the high half, position of its command in the low half.
+     */
+    private LongArray blockSlots = new LongArray(0, false);
+    private int stamp;
+
+    ParallelRound(final PackedGame game, final ForkJoinPool pool) {
+        this.game = game;
+        this.pool = pool;
+        this.workers = new PackedGame.Worker[pool.getParallelism() * 4];
+        for (int i = 0; i < workers.length; i++) {
+            workers[i] = game.new Worker(new TransitionLog());
+        }
+    }
+
+    void execute(final Command[] requests, final List<Response> responses) {
+        ensureCapacity(requests.length);
+
+        // Accept commands in execution order: modifications first, then scans
+        int count = 0;
+        for (int i = 0; i < requests.length; i++) {
+            if (!(requests[i] instanceof CommandScan))
+                count = accept(requests, i, count);
+        }
+        int modifications = count;
+        for (int i = 0; i < requests.length; i++) {
+            if (requests[i] instanceof CommandScan)
+                count = accept(requests, i, count);
+        }
+
+        int from = 0;
+        while (from < modifications) {
+            if (!isBlockLocal(requests[order[from]])) {
+                results[from] = game.executeSerial(requests[order[from]], handles[from]);
+                from++;
+                continue;
+            }
+            int to = from + 1;
+            while (to < modifications && isBlockLocal(requests[order[to]]))
+                to++;
+            executeGroups(requests, from, to);
+            from = to;
+        }
+        executeScans(requests, modifications, count);
+
+        for (int i = 0; i < count; i++) {
+            if (results[i] != null)
+                responses.add(results[i]);
+            results[i] = null;
+        }
+    }
+
+    /**
+     * Publishes the counts of the workers.
+     */
+    void publishMetrics(final EngineMetrics metrics) {
+        for (PackedGame.Worker worker : workers) {
+            metrics.publish(worker.counts);
+        }
+    }
+
+    private int accept(final Command[] requests, final int index, final int count) {
+        int handle = game.acceptHandle(requests[index]);
+        if (handle == PackedGame.NO_OWNER)
+            return count;
+        order[count] = index;
+        handles[count] = handle;
+        return count + 1;
+    }
+
+    /**
+     * Built-in modifications read and write only the blocks of their own cells.
+     */
+    private static boolean isBlockLocal(final Command command) {
+        Class<?> type = command.getClass();
+        return type == CommandAllocate.class || type == CommandFree.class || type == CommandRecover.class
+                || type == CommandFortify.class || type == CommandSwap.class;
+    }
+
+    private void executeGroups(final Command[] requests, final int from, final int to) {
+        int cellCount = (int) game.board.size();
+        int blocks = (cellCount + 3) >>> 2;
+        if (blockSlots.length() != blocks || blockSlots.isOffHeap() != game.board.isOffHeap()) {
+            blockSlots = new LongArray(blocks, game.board.isOffHeap());
+            stamp = 0;
+        }
+        stamp++;
+
+        for (int p = from; p < to; p++) {
+            parent[p] = p;
+        }
+        for (int p = from; p < to; p++) {
+            for (int cell : ((CommandGeneral) requests[order[p]]).getCellArray()) {
+                if (cell < 0 || cell >= cellCount)
+                    continue;
+                int block = cell >>> 2;
+                long slot = blockSlots.get(block);
+                if ((int) (slot >>> 32) == stamp)
+                    union(p, (int) slot);
+                else
+                    blockSlots.set(block, (long) stamp << 32 | p);
+            }
+        }
+
+        // Lay out the groups one after the other, roots are the first commands of their groups
+        for (int p = from; p < to; p++) {
+            groupStart[p] = 0;
+        }
+        for (int p = from; p < to; p++) {
+            groupStart[find(p)]++;
+        }
+        int offset = from;
+        for (int p = from; p < to; p++) {
+            if (parent[p] == p) {
+                int size = groupStart[p];
+                groupStart[p] = offset;
+                offset += size;
+            }
+        }
+        for (int p = from; p < to; p++) {
+            members[groupStart[parent[p]]++] = p;
+        }
+
+        // Split the layout at group boundaries into chunks of similar size
+        int chunk = (to - from + workers.length - 1) / workers.length;
+        Range[] tasks = new Range[workers.length];
+        int tasksCount = 0;
+        int start = from;
+        while (start < to) {
+            int end = Math.min(start + chunk, to);
+            while (end < to && parent[members[end]] == parent[members[end - 1]])
+                end++;
+            tasks[tasksCount] = new Range(requests, workers[tasksCount], start, end);
+            tasksCount++;
+            start = end;
+        }
+        invoke(tasks, tasksCount);
+
+        for (int i = 0; i < tasksCount; i++) {
+            workers[i].drainLog();
+        }
+    }
+
+    private void executeScans(final Command[] requests, final int from, final int to) {
+        for (int q = from; q < to; q++) {
+            members[q] = q;
+        }
+        int chunk = Math.max(1, (to - from + workers.length - 1) / workers.length);
+        Range[] tasks = new Range[workers.length];
+        int tasksCount = 0;
+        for (int start = from; start < to; start += chunk) {
+            tasks[tasksCount] = new Range(requests, workers[tasksCount], start, Math.min(start + chunk, to));
+            tasksCount++;
+        }
+        invoke(tasks, tasksCount);
+    }
+
+    private void invoke(final Range[] tasks, final int count) {
+        if (count == 0)
+            return;
+        pool.invoke(new RecursiveAction() {
+            @Override
+            protected void compute() {
+                for (int i = 1; i < count; i++) {
+                    tasks[i].fork();
+                }
+                tasks[0].compute();
+                for (int i = 1; i < count; i++) {
+                    tasks[i].join();
+                }
+            }
+        });
+    }
+
+    private void union(final int a, final int b) {
+        int rootA = find(a);
+        int rootB = find(b);
+        if (rootA < rootB)
+            parent[rootB] = rootA;
+        else if (rootB < rootA)
+            parent[rootA] = rootB;
+    }
+
+    private int find(int p) {
+        while (parent[p] != p) {
+            parent[p] = parent[parent[p]];
+            p = parent[p];
+        }
+        return p;
+    }
+
+    private void ensureCapacity(final int length) {
+        if (order.length >= length)
+            return;
+        order = new int[length];
+        handles = new int[length];
+        results = new Response[length];
+        parent = new int[length];
+        groupStart = new int[length];
+        members = new int[length];
+    }
+
+    /**
+     * Executes the commands at a range of the member layout with one worker.
+     */
+    private final class Range extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final Command[] requests;
+        private final PackedGame.Worker worker;
+        private final int from;
+        private final int to;
+
+        private Range(final Command[] requests, final PackedGame.Worker worker, final int from, final int to) {
+            this.requests = requests;
+            this.worker = worker;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            for (int q = from; q < to; q++) {
+                int p = members[q];
+                results[p] = worker.execute(requests[order[p]], handles[p]);
+            }
+        }
+    }
+}
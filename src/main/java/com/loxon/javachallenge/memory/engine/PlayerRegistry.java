@@ -0,0 +1,92 @@
+package com.loxon.javachallenge.memory.engine;
+
+import com.loxon.javachallenge.memory.api.Player;
+
+import java.util.Arrays;
+
+/**
+ * Registered players addressed by dense handles (registration index + 1).
+ * Handles are found with an open-addressing hash table, so a lookup costs O(1)
+ * instead of a scan over the registered players.
+ */
+final class PlayerRegistry {
+
+    private Player[] players = new Player[16];
+    private int size;
+    private int[] slots = new int[32];
+    private int mask = slots.length - 1;
+
+    /**
+     * Adds a player.
+     * @param player player to add, not registered yet
+     * @return handle of the player
+     */
+    int register(final Player player) {
+        if (size + 1 == players.length)
+            players = Arrays.copyOf(players, players.length * 2);
+        int handle = ++size;
+        players[handle] = player;
+        if (size * 2 > slots.length)
+            rehash(slots.length * 2);
+        else
+            insert(handle);
+        return handle;
+    }
+
+    /**
+     * Handle of a player.
+     * @param player player to find, may be null
+     * @return handle, or {@link PackedGame#NO_OWNER} if the player is not registered
+     */
+    int handle(final Player player) {
+        if (player == null)
+            return PackedGame.NO_OWNER;
+        int slot = mix(player.hashCode()) & mask;
+        int handle;
+        while ((handle = slots[slot]) != PackedGame.NO_OWNER) {
+            Player registered = players[handle];
+            if (registered == player || registered.equals(player))
+                return handle;
+            slot = (slot + 1) & mask;
+        }
+        return PackedGame.NO_OWNER;
+    }
+
+    /**
+     * Player of a handle.
+     * @param handle valid handle
+     * @return registered player
+     */
+    Player player(final int handle) {
+        return players[handle];
+    }
+
+    /**
+     * Number of registered players, which is also the largest handle.
+     * @return number of players
+     */
+    int size() {
+        return size;
+    }
+
+    private void insert(final int handle) {
+        int slot = mix(players[handle].hashCode()) & mask;
+        while (slots[slot] != PackedGame.NO_OWNER) {
+            slot = (slot + 1) & mask;
+        }
+        slots[slot] = handle;
+    }
+
+    private void rehash(final int length) {
+        slots = new int[length];
+        mask = length - 1;
+        for (int handle = 1; handle <= size; handle++) {
+            insert(handle);
+        }
+    }
+
+    private static int mix(final int hash) {
+        int h = hash * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+}
@@ -0,0 +1,27 @@
+package com.loxon.javachallenge.memory.engine;
+
+/**
+ * Reasons of ignored commands and cells counted by {@link EngineMetrics}.
+ */
+public enum Rejection {
+    /**
+     * Command of a player not registered to the game.
+     */
+    UNREGISTERED_PLAYER,
+    /**
+     * Command of a player who already sent one in the round.
+     */
+    DUPLICATE_PLAYER,
+    /**
+     * Cell outside of the board, counted per cell.
+     */
+    INVALID_CELL,
+    /**
+     * Allocation of cells in different blocks.
+     */
+    CROSS_BLOCK,
+    /**
+     * Command with a number of cells its type does not accept.
+     */
+    CELL_COUNT
+}
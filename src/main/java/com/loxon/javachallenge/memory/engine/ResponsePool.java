@@ -0,0 +1,126 @@
+package com.loxon.javachallenge.memory.engine;
+
+import com.loxon.javachallenge.memory.api.MemoryState;
+import com.loxon.javachallenge.memory.api.Player;
+import com.loxon.javachallenge.memory.api.communication.commands.ResponseScan;
+import com.loxon.javachallenge.memory.api.communication.commands.ResponseScanRange;
+import com.loxon.javachallenge.memory.api.communication.commands.ResponseStats;
+import com.loxon.javachallenge.memory.api.communication.commands.ResponseSuccessList;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.RandomAccess;
+
+/**
+ * Response instances reused round after round, one of each type per player handle.
+ * A player receives at most one response per round, so an instance is valid until the next round.
+ */
+final class ResponsePool {
+
+    private ResponseSuccessList[] successLists = new ResponseSuccessList[1];
+    private ResponseScan[] scans = new ResponseScan[1];
+    private ResponseScanRange[] scanRanges = new ResponseScanRange[1];
+    private ResponseStats[] stats = new ResponseStats[1];
+
+    /**
+     * Makes room for the responses of the given handle.
+     * @param handle player handle
+     */
+    void ensureCapacity(final int handle) {
+        if (handle < successLists.length)
+            return;
+        int length = Math.max(handle + 1, successLists.length * 2);
+        successLists = Arrays.copyOf(successLists, length);
+        scans = Arrays.copyOf(scans, length);
+        scanRanges = Arrays.copyOf(scanRanges, length);
+        stats = Arrays.copyOf(stats, length);
+    }
+
+    ResponseSuccessList successList(final Player player, final int handle, final int[] cells, final int count) {
+        ResponseSuccessList response = successLists[handle];
+        if (response == null) {
+            response = new ResponseSuccessList(player, new ReusableCellList());
+            successLists[handle] = response;
+        }
+        ((ReusableCellList) response.getSuccessCells()).set(cells, count);
+        return response;
+    }
+
+    ResponseScan scan(final Player player, final int handle, final int firstCell, final byte[] block, final int count) {
+        ResponseScan response = scans[handle];
+        if (response == null) {
+            response = new ResponseScan(player, firstCell, new ReusableStateList());
+            scans[handle] = response;
+        }
+        response.setFirstCell(firstCell);
+        ((ReusableStateList) response.getStates()).set(block, count);
+        return response;
+    }
+
+    /**
+     * Range scan response with room for the given number of cells in its state array.
+     */
+    ResponseScanRange scanRange(final Player player, final int handle, final int count) {
+        ResponseScanRange response = scanRanges[handle];
+        if (response == null || response.getStates().length < count) {
+            response = new ResponseScanRange(player, -1, new byte[Math.max(count, 4)], 0);
+            scanRanges[handle] = response;
+        }
+        return response;
+    }
+
+    ResponseStats stats(final Player player, final int handle) {
+        ResponseStats response = stats[handle];
+        if (response == null) {
+            response = new ResponseStats(player);
+            stats[handle] = response;
+        }
+        return response;
+    }
+
+    private static final class ReusableCellList extends AbstractList<Integer> implements RandomAccess {
+        private int[] cells = new int[2];
+        private int size;
+
+        void set(final int[] source, final int count) {
+            if (count > cells.length)
+                cells = new int[Math.max(count, cells.length * 2)];
+            System.arraycopy(source, 0, cells, 0, count);
+            size = count;
+        }
+
+        @Override
+        public Integer get(final int index) {
+            if (index >= size)
+                throw new IndexOutOfBoundsException("Index: " + index + ", size: " + size);
+            return cells[index];
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+    }
+
+    private static final class ReusableStateList extends AbstractList<MemoryState> implements RandomAccess {
+        private final byte[] states = new byte[4];
+        private int size;
+
+        void set(final byte[] source, final int count) {
+            System.arraycopy(source, 0, states, 0, count);
+            size = count;
+        }
+
+        @Override
+        public MemoryState get(final int index) {
+            if (index >= size)
+                throw new IndexOutOfBoundsException("Index: " + index + ", size: " + size);
+            return CellState.toMemoryState(states[index]);
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+    }
+}
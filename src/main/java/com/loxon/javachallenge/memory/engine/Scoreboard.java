@@ -0,0 +1,111 @@
+package com.loxon.javachallenge.memory.engine;
+
+import com.loxon.javachallenge.memory.api.Player;
+import com.loxon.javachallenge.memory.api.PlayerScore;
+
+import java.nio.IntBuffer;
+import java.util.Arrays;
+
+/**
+ * Score counters of the players, indexed by player handle.
+ * Updated from the cell transitions of the engine, so reading the scores
+ * does not need a pass over the board.
+ */
+final class Scoreboard {
+
+    private int[] ownedCells = new int[1];
+    private int[] fortifiedCells = new int[1];
+    private int[] scoringCells = new int[1];
+    private int[] ownedBlocks = new int[1];
+
+    /**
+     * Makes room for the counters of the given handle.
+     * @param handle player handle
+     */
+    void ensureCapacity(final int handle) {
+        if (handle < ownedCells.length)
+            return;
+        int length = Math.max(handle + 1, ownedCells.length * 2);
+        ownedCells = Arrays.copyOf(ownedCells, length);
+        fortifiedCells = Arrays.copyOf(fortifiedCells, length);
+        scoringCells = Arrays.copyOf(scoringCells, length);
+        ownedBlocks = Arrays.copyOf(ownedBlocks, length);
+    }
+
+    /**
+     * Clears every counter.
+     */
+    void reset() {
+        Arrays.fill(ownedCells, 0);
+        Arrays.fill(fortifiedCells, 0);
+        Arrays.fill(scoringCells, 0);
+        Arrays.fill(ownedBlocks, 0);
+    }
+
+    /**
+     * Applies the transition of a cell belonging to a complete block.
+     */
+    void cellChanged(final byte oldState, final int oldOwner, final byte newState, final int newOwner) {
+        if (oldOwner != PackedGame.NO_OWNER)
+            add(oldState, oldOwner, -1);
+        if (newOwner != PackedGame.NO_OWNER)
+            add(newState, newOwner, 1);
+    }
+
+    /**
+     * Applies the change of the common owner of a block.
+     * @param oldOwner previous owner of every cell, {@link PackedGame#NO_OWNER} if there was none
+     * @param newOwner new owner of every cell, {@link PackedGame#NO_OWNER} if there is none
+     */
+    void blockChanged(final int oldOwner, final int newOwner) {
+        if (oldOwner != PackedGame.NO_OWNER)
+            ownedBlocks[oldOwner]--;
+        if (newOwner != PackedGame.NO_OWNER)
+            ownedBlocks[newOwner]++;
+    }
+
+    /**
+     * Copies out the counters of a player.
+     * @param player player of the score
+     * @param handle handle of the player
+     * @return score of the player
+     */
+    PlayerScore toScore(final Player player, final int handle) {
+        PlayerScore score = new PlayerScore(player);
+        score.setOwnedCells(ownedCells[handle]);
+        score.setFortifiedCells(fortifiedCells[handle]);
+        score.setOwnedBlocks(ownedBlocks[handle]);
+        score.setTotalScore(scoringCells[handle] + 4 * ownedBlocks[handle]);
+        return score;
+    }
+
+    /**
+     * Writes the counters of the handles up to the given one.
+     */
+    void writeTo(final IntBuffer out, final int handles) {
+        out.put(ownedCells, 0, handles + 1);
+        out.put(fortifiedCells, 0, handles + 1);
+        out.put(scoringCells, 0, handles + 1);
+        out.put(ownedBlocks, 0, handles + 1);
+    }
+
+    /**
+     * Reads the counters written by {@link #writeTo(IntBuffer, int)}. Room for the handles must be made before.
+     */
+    void readFrom(final IntBuffer in, final int handles) {
+        in.get(ownedCells, 0, handles + 1);
+        in.get(fortifiedCells, 0, handles + 1);
+        in.get(scoringCells, 0, handles + 1);
+        in.get(ownedBlocks, 0, handles + 1);
+    }
+
+    private void add(final byte state, final int owner, final int delta) {
+        ownedCells[owner] += delta;
+        if (state == CellState.ALLOCATED) {
+            scoringCells[owner] += delta;
+        } else if (state == CellState.FORTIFIED) {
+            scoringCells[owner] += delta;
+            fortifiedCells[owner] += delta;
+        }
+    }
+}
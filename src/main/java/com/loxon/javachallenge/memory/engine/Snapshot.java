@@ -0,0 +1,18 @@
+package com.loxon.javachallenge.memory.engine;
+
+/**
+ * State of a {@link PackedGame} at a point in time, see {@link PackedGame#snapshot()}.
+ * A snapshot only holds a position in the undo journal of its game.
+ */
+public final class Snapshot {
+
+    final PackedGame game;
+    final int index;
+    final long serial;
+
+    Snapshot(final PackedGame game, final int index, final long serial) {
+        this.game = game;
+        this.index = index;
+        this.serial = serial;
+    }
+}
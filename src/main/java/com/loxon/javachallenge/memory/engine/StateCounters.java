@@ -0,0 +1,88 @@
+package com.loxon.javachallenge.memory.engine;
+
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.util.Arrays;
+
+/**
+ * Live number of cells per state and per owner on the whole board.
+ */
+final class StateCounters {
+
+    private static final int CHUNK = 1 << 14;
+
+    private final int[] states = new int[CellState.COUNT];
+    private int[] owned = new int[1];
+
+    /**
+     * Makes room for the counter of the given handle.
+     * @param handle player handle
+     */
+    void ensureCapacity(final int handle) {
+        if (handle >= owned.length)
+            owned = Arrays.copyOf(owned, Math.max(handle + 1, owned.length * 2));
+    }
+
+    /**
+     * Recounts the states of a new board. Owners are cleared.
+     * @param board new board
+     */
+    void reset(final Board board) {
+        Arrays.fill(states, 0);
+        Arrays.fill(owned, 0);
+        int cellCount = (int) board.size();
+        owned[PackedGame.NO_OWNER] = cellCount;
+        byte[] chunk = new byte[Math.min(CHUNK, cellCount)];
+        for (int from = 0; from < cellCount; from += chunk.length) {
+            int count = Math.min(chunk.length, cellCount - from);
+            board.getStates(from, ByteBuffer.wrap(chunk, 0, count));
+            for (int i = 0; i < count; i++) {
+                states[chunk[i]]++;
+            }
+        }
+    }
+
+    /**
+     * Applies the transition of a cell.
+     */
+    void cellChanged(final byte oldState, final int oldOwner, final byte newState, final int newOwner) {
+        states[oldState]--;
+        states[newState]++;
+        owned[oldOwner]--;
+        owned[newOwner]++;
+    }
+
+    /**
+     * Writes the counters of the states and of the handles up to the given one.
+     */
+    void writeTo(final IntBuffer out, final int handles) {
+        out.put(states);
+        out.put(owned, 0, handles + 1);
+    }
+
+    /**
+     * Reads the counters written by {@link #writeTo(IntBuffer, int)}. Room for the handles must be made before.
+     */
+    void readFrom(final IntBuffer in, final int handles) {
+        in.get(states);
+        in.get(owned, 0, handles + 1);
+    }
+
+    /**
+     * Number of cells in the given state.
+     * @param state state code
+     * @return number of cells
+     */
+    int count(final byte state) {
+        return states[state];
+    }
+
+    /**
+     * Number of cells owned by the given player.
+     * @param handle player handle
+     * @return number of cells
+     */
+    int owned(final int handle) {
+        return owned[handle];
+    }
+}
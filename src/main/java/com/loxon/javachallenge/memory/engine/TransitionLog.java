@@ -0,0 +1,63 @@
+package com.loxon.javachallenge.memory.engine;
+
+import java.util.Arrays;
+
+/**
+ * Cell and block transitions recorded by a worker while it executes commands in parallel.
+ * The bookkeeping of the transitions is applied from a single thread once the workers are done.
+ */
+final class TransitionLog {
+
+    private int[] cells = new int[16];
+    private byte[] oldStates = new byte[16];
+    private int[] oldOwners = new int[16];
+    private byte[] newStates = new byte[16];
+    private int[] newOwners = new int[16];
+    private int size;
+
+    private int[] blockOldOwners = new int[16];
+    private int[] blockNewOwners = new int[16];
+    private int blockSize;
+
+    void cell(final int cell, final byte oldState, final int oldOwner, final byte newState, final int newOwner) {
+        if (size == cells.length) {
+            int length = size * 2;
+            cells = Arrays.copyOf(cells, length);
+            oldStates = Arrays.copyOf(oldStates, length);
+            oldOwners = Arrays.copyOf(oldOwners, length);
+            newStates = Arrays.copyOf(newStates, length);
+            newOwners = Arrays.copyOf(newOwners, length);
+        }
+        cells[size] = cell;
+        oldStates[size] = oldState;
+        oldOwners[size] = oldOwner;
+        newStates[size] = newState;
+        newOwners[size] = newOwner;
+        size++;
+    }
+
+    void block(final int oldOwner, final int newOwner) {
+        if (blockSize == blockOldOwners.length) {
+            blockOldOwners = Arrays.copyOf(blockOldOwners, blockSize * 2);
+            blockNewOwners = Arrays.copyOf(blockNewOwners, blockSize * 2);
+        }
+        blockOldOwners[blockSize] = oldOwner;
+        blockNewOwners[blockSize] = newOwner;
+        blockSize++;
+    }
+
+    /**
+     * Replays the recorded transitions in order, then forgets them.
+     * @param game game receiving the transitions
+     */
+    void drainTo(final PackedGame game) {
+        for (int i = 0; i < size; i++) {
+            game.cellChanged(cells[i], oldStates[i], oldOwners[i], newStates[i], newOwners[i]);
+        }
+        for (int i = 0; i < blockSize; i++) {
+            game.blockChanged(blockOldOwners[i], blockNewOwners[i]);
+        }
+        size = 0;
+        blockSize = 0;
+    }
+}
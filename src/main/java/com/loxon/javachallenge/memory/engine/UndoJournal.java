@@ -0,0 +1,92 @@
+package com.loxon.javachallenge.memory.engine;
+
+import java.util.Arrays;
+
+/**
+ * Previous values of the cells written since the oldest live snapshot, in write order,
+ * and the stack of the live snapshots as positions in the journal.
+ */
+final class UndoJournal {
+
+    private int[] cells = new int[64];
+    private byte[] states = new byte[64];
+    private int[] owners = new int[64];
+    private int size;
+
+    private long[] markSerials = new long[4];
+    private int[] markPositions = new int[4];
+    private int[] markRounds = new int[4];
+    private int marks;
+    private long serial;
+
+    /**
+     * Whether any snapshot is live, so writes have to be recorded.
+     * @return true if writes have to be recorded
+     */
+    boolean isRecording() {
+        return marks > 0;
+    }
+
+    void record(final int cell, final byte oldState, final int oldOwner) {
+        if (size == cells.length) {
+            int length = size * 2;
+            cells = Arrays.copyOf(cells, length);
+            states = Arrays.copyOf(states, length);
+            owners = Arrays.copyOf(owners, length);
+        }
+        cells[size] = cell;
+        states[size] = oldState;
+        owners[size] = oldOwner;
+        size++;
+    }
+
+    /**
+     * Pushes a snapshot at the current position.
+     * @param game game of the snapshot
+     * @param round current round of the game
+     * @return the snapshot
+     */
+    Snapshot mark(final PackedGame game, final int round) {
+        if (marks == markSerials.length) {
+            markSerials = Arrays.copyOf(markSerials, marks * 2);
+            markPositions = Arrays.copyOf(markPositions, marks * 2);
+            markRounds = Arrays.copyOf(markRounds, marks * 2);
+        }
+        markSerials[marks] = ++serial;
+        markPositions[marks] = size;
+        markRounds[marks] = round;
+        return new Snapshot(game, marks++, serial);
+    }
+
+    /**
+     * Whether the snapshot can still be restored, i.e. no earlier snapshot was restored since it was taken.
+     */
+    boolean isLive(final Snapshot snapshot) {
+        return snapshot.index < marks && markSerials[snapshot.index] == snapshot.serial;
+    }
+
+    /**
+     * Undoes the writes made since the snapshot in reverse order, and drops the later snapshots.
+     * The snapshot stays live.
+     * @param snapshot live snapshot
+     * @param game game receiving the previous values
+     * @return round of the snapshot
+     */
+    int rollback(final Snapshot snapshot, final PackedGame game) {
+        int position = markPositions[snapshot.index];
+        for (int i = size - 1; i >= position; i--) {
+            game.undoCell(cells[i], states[i], owners[i]);
+        }
+        size = position;
+        marks = snapshot.index + 1;
+        return markRounds[snapshot.index];
+    }
+
+    /**
+     * Drops every snapshot and the recorded writes.
+     */
+    void clear() {
+        size = 0;
+        marks = 0;
+    }
+}
@@ -0,0 +1,98 @@
+package com.loxon.javachallenge.memory.engine;
+
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+
+/**
+ * Incremental 64-bit Zobrist hash of a board: the XOR of a pseudo-random key for the (cell, state, owner)
+ * triple of every cell. Keys are derived by mixing the triple instead of being stored in tables,
+ * so the hash needs no memory proportional to the board times the players.
+ * Block hashes are kept in a Fenwick tree next to the board, so the hash of any block range is available
+ * in O(log blocks).
+ */
+final class ZobristHash {
+
+    private static final long SEED = 0x6A09E667F3BCC909L;
+    private static final int CHUNK = 1 << 14;
+
+    private LongArray tree = new LongArray(1, false);
+    private long hash;
+
+    /**
+     * Recalculates the hash of a new board.
+     */
+    void reset(final Board board) {
+        int cellCount = (int) board.size();
+        int blocks = (cellCount + 3) >>> 2;
+        tree = new LongArray(blocks + 1, board.isOffHeap());
+        hash = 0;
+        byte[] states = new byte[Math.min(CHUNK, cellCount)];
+        int[] owners = new int[states.length];
+        for (int from = 0; from < cellCount; from += states.length) {
+            int count = Math.min(states.length, cellCount - from);
+            board.getStates(from, ByteBuffer.wrap(states, 0, count));
+            board.getOwners(from, IntBuffer.wrap(owners, 0, count));
+            for (int i = 0; i < count; i++) {
+                int cell = from + i;
+                long key = key(cell, states[i], owners[i]);
+                int node = (cell >>> 2) + 1;
+                tree.set(node, tree.get(node) ^ key);
+                hash ^= key;
+            }
+        }
+        // Build the Fenwick tree in place from the block values
+        for (int i = 1; i <= blocks; i++) {
+            int parent = i + (i & -i);
+            if (parent <= blocks)
+                tree.set(parent, tree.get(parent) ^ tree.get(i));
+        }
+    }
+
+    /**
+     * Applies the transition of a cell.
+     */
+    void cellChanged(final int cell, final byte oldState, final int oldOwner, final byte newState, final int newOwner) {
+        long delta = key(cell, oldState, oldOwner) ^ key(cell, newState, newOwner);
+        hash ^= delta;
+        for (int i = (cell >>> 2) + 1; i < tree.length(); i += i & -i) {
+            tree.set(i, tree.get(i) ^ delta);
+        }
+    }
+
+    /**
+     * Hash of the whole board.
+     */
+    long hash() {
+        return hash;
+    }
+
+    /**
+     * Hash of the cells of a block range.
+     * @param fromBlock first block, inclusive
+     * @param toBlock last block, exclusive
+     */
+    long hash(final int fromBlock, final int toBlock) {
+        return prefix(toBlock) ^ prefix(fromBlock);
+    }
+
+    private long prefix(final int blocks) {
+        long value = 0;
+        for (int i = blocks; i > 0; i -= i & -i) {
+            value ^= tree.get(i);
+        }
+        return value;
+    }
+
+    /**
+     * Key of a cell in a state with an owner.
+     */
+    static long key(final int cell, final byte state, final int owner) {
+        return mix(mix(SEED + cell) ^ ((long) owner << 8 | state));
+    }
+
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
@@ -0,0 +1,28 @@
+package com.loxon.javachallenge.memory.journal;
+
+/**
+ * Layout of the round journal.
+ * <p>
+ * The file starts with {@link #MAGIC} and {@link #VERSION} as big-endian ints, followed by records.
+ * A record is a tag byte, the length of its payload as a varint and the payload:
+ * <ul>
+ *     <li>{@link #PLAYER}: name as varint length and UTF-8 bytes. Players get handles 1, 2... in order.</li>
+ *     <li>{@link #START}: number of rounds, number of cells, then one {@code MemoryState} ordinal byte per cell.</li>
+ *     <li>{@link #ROUND}: number of commands, then per command the player handle (0 for unknown players)
+ *     and the command encoded by {@link com.loxon.javachallenge.memory.codec.MessageCodec}.</li>
+ * </ul>
+ * Numbers are unsigned LEB128 varints.
+ * A record cut by a crash is ignored by the replayer.
+ */
+final class JournalFormat {
+
+    static final int MAGIC = 0x4D474A4E;
+    static final int VERSION = 2;
+
+    static final byte PLAYER = 1;
+    static final byte START = 2;
+    static final byte ROUND = 3;
+
+    private JournalFormat() {
+    }
+}
@@ -0,0 +1,166 @@
+package com.loxon.javachallenge.memory.journal;
+
+import com.loxon.javachallenge.memory.api.Game;
+import com.loxon.javachallenge.memory.api.MemoryState;
+import com.loxon.javachallenge.memory.api.Player;
+import com.loxon.javachallenge.memory.api.communication.general.Command;
+import com.loxon.javachallenge.memory.api.communication.general.Response;
+import com.loxon.javachallenge.memory.codec.MalformedMessageException;
+import com.loxon.javachallenge.memory.codec.MessageCodec;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Replays a journal written by {@link JournalingGame} into a new game.
+ * The file is memory-mapped and read record by record, so the size of the journal is not limited by the heap.
+ * A last record cut by a crash is ignored.
+ */
+public class JournalReplayer implements Closeable {
+
+    private static final MemoryState[] STATES = MemoryState.values();
+    private static final int HEADER_SIZE = 8;
+
+    private final FileChannel channel;
+    private final MappedInput input;
+    private final Player unknownPlayer = new Player("unknown");
+    private Consumer<List<Response>> listener;
+
+    /**
+     * Opens a journal.
+     * @param file journal file
+     * @throws IOException if the file cannot be read or it is not a journal
+     */
+    public JournalReplayer(final Path file) throws IOException {
+        channel = FileChannel.open(file, StandardOpenOption.READ);
+        try {
+            input = new MappedInput(channel);
+            if (input.remaining() < HEADER_SIZE)
+                throw new IOException("Not a round journal: " + file);
+            input.require(HEADER_SIZE);
+            int magic = readInt();
+            int version = readInt();
+            if (magic != JournalFormat.MAGIC)
+                throw new IOException("Not a round journal: " + file);
+            if (version != JournalFormat.VERSION)
+                throw new IOException("Unsupported journal version " + version + ": " + file);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Sets a listener receiving the responses of every replayed round.
+     * @param listener response listener, null to remove
+     */
+    public void setListener(final Consumer<List<Response>> listener) {
+        this.listener = listener;
+    }
+
+    /**
+     * Replays the whole journal.
+     * @param game new game without players
+     * @return number of replayed rounds
+     * @throws IOException if reading fails
+     */
+    public int replay(final Game game) throws IOException {
+        return replay(game, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Replays the journal from the beginning up to the given number of rounds, rebuilding the state
+     * of the game after that round.
+     * @param game new game without players
+     * @param rounds maximum number of rounds to replay
+     * @return number of replayed rounds
+     * @throws IOException if reading fails
+     */
+    public int replay(final Game game, final int rounds) throws IOException {
+        input.seek(HEADER_SIZE);
+        List<Player> players = new ArrayList<>();
+        players.add(unknownPlayer);
+        int replayed = 0;
+        while (replayed < rounds && input.remaining() > 0) {
+            input.require((int) Math.min(6, input.remaining()));
+            byte tag = input.readByte();
+            long length;
+            try {
+                length = input.readVarint();
+            } catch (BufferUnderflowException e) {
+                break;
+            }
+            if (length > input.remaining())
+                break;
+            input.require((int) length);
+            long end = input.position() + length;
+
+            switch (tag) {
+                case JournalFormat.PLAYER:
+                    players.add(game.registerPlayer(readString()));
+                    break;
+                case JournalFormat.START:
+                    int gameRounds = (int) input.readVarint();
+                    game.startGame(readBoard(), gameRounds);
+                    break;
+                case JournalFormat.ROUND:
+                    List<Response> responses = game.nextRound(readCommands(players));
+                    if (listener != null)
+                        listener.accept(responses);
+                    replayed++;
+                    break;
+                default:
+                    throw new IOException("Unknown record " + tag + " at " + (input.position() - 1));
+            }
+            input.seek(end);
+        }
+        return replayed;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    private int readInt() {
+        int value = 0;
+        for (int i = 0; i < 4; i++) {
+            value = value << 8 | input.readByte() & 0xFF;
+        }
+        return value;
+    }
+
+    private String readString() {
+        byte[] bytes = new byte[(int) input.readVarint()];
+        input.readBytes(bytes, bytes.length);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private List<MemoryState> readBoard() {
+        byte[] codes = new byte[(int) input.readVarint()];
+        input.readBytes(codes, codes.length);
+        List<MemoryState> board = new ArrayList<>(codes.length);
+        for (byte code : codes) {
+            board.add(STATES[code]);
+        }
+        return board;
+    }
+
+    private Command[] readCommands(final List<Player> players) throws MalformedMessageException {
+        Command[] commands = new Command[(int) input.readVarint()];
+        for (int i = 0; i < commands.length; i++) {
+            int handle = (int) input.readVarint();
+            Player player = handle < players.size() ? players.get(handle) : unknownPlayer;
+            commands[i] = MessageCodec.decodeCommand(input.buffer(), player);
+        }
+        return commands;
+    }
+}
@@ -0,0 +1,187 @@
+package com.loxon.javachallenge.memory.journal;
+
+import com.loxon.javachallenge.memory.api.communication.general.Command;
+import com.loxon.javachallenge.memory.codec.MessageCodec;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Appends journal records to a file through a buffered channel.
+ * The payload of a record is built in memory first, so its length can precede it. Records of a known length,
+ * such as the initial board, can be streamed instead with {@link #beginRecord(byte, long)}.
+ */
+final class JournalWriter implements Closeable {
+
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private final FileChannel channel;
+    private final ByteBuffer out = ByteBuffer.allocateDirect(BUFFER_SIZE);
+    private final int syncInterval;
+    private ByteBuffer payload = ByteBuffer.allocate(256);
+    private int unsyncedRounds;
+
+    /**
+     * Creates a new journal file.
+     * @param file file to create, truncated if it exists
+     * @param syncInterval number of rounds between forcing the file to the disk, 0 to never force
+     */
+    JournalWriter(final Path file, final int syncInterval) throws IOException {
+        this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+        this.syncInterval = syncInterval;
+        out.putInt(JournalFormat.MAGIC);
+        out.putInt(JournalFormat.VERSION);
+    }
+
+    void putVarint(long value) {
+        ensure(10);
+        while ((value & ~0x7FL) != 0) {
+            payload.put((byte) (value & 0x7F | 0x80));
+            value >>>= 7;
+        }
+        payload.put((byte) value);
+    }
+
+    void putString(final String value) {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        putVarint(bytes.length);
+        putBytes(bytes, bytes.length);
+    }
+
+    void putBytes(final byte[] bytes, final int length) {
+        ensure(length);
+        payload.put(bytes, 0, length);
+    }
+
+    /**
+     * Writes a command without its player.
+     * @throws IllegalArgumentException if the command type cannot be encoded
+     */
+    void putCommand(final Command command) {
+        int start = payload.position();
+        while (true) {
+            try {
+                MessageCodec.encode(payload, command);
+                return;
+            } catch (BufferOverflowException e) {
+                payload.position(start);
+                ensure(payload.capacity());
+            }
+        }
+    }
+
+    /**
+     * Appends the payload written since the previous record as a record.
+     * @param tag type of the record
+     */
+    void endRecord(final byte tag) throws IOException {
+        payload.flip();
+        int length = payload.remaining();
+        putHeader(tag, length);
+        flushPayload();
+
+        if (tag == JournalFormat.ROUND && syncInterval > 0 && ++unsyncedRounds >= syncInterval)
+            sync();
+    }
+
+    /**
+     * Appends the payload written since the previous record as the head of a record
+     * whose remaining bytes are streamed with {@link #append(byte)}.
+     * @param tag type of the record
+     * @param tailLength number of bytes appended after the payload
+     */
+    void beginRecord(final byte tag, final long tailLength) throws IOException {
+        payload.flip();
+        putHeader(tag, payload.remaining() + tailLength);
+        flushPayload();
+    }
+
+    /**
+     * Appends a byte of the record started by {@link #beginRecord(byte, long)}.
+     */
+    void append(final byte value) throws IOException {
+        reserve(1);
+        out.put(value);
+    }
+
+    private void putHeader(final byte tag, final long length) throws IOException {
+        reserve(11);
+        out.put(tag);
+        for (long value = length; ; value >>>= 7) {
+            if ((value & ~0x7FL) == 0) {
+                out.put((byte) value);
+                break;
+            }
+            out.put((byte) (value & 0x7F | 0x80));
+        }
+    }
+
+    private void flushPayload() throws IOException {
+        int length = payload.remaining();
+        if (length > out.remaining()) {
+            drain();
+            while (payload.hasRemaining()) {
+                channel.write(payload);
+            }
+        } else {
+            out.put(payload);
+        }
+        payload.clear();
+    }
+
+    /**
+     * Drops the payload written since the previous record.
+     */
+    void discardRecord() {
+        payload.clear();
+    }
+
+    /**
+     * Writes the buffered records and forces them to the disk.
+     */
+    void sync() throws IOException {
+        drain();
+        channel.force(false);
+        unsyncedRounds = 0;
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            drain();
+            if (syncInterval > 0)
+                channel.force(false);
+        } finally {
+            channel.close();
+        }
+    }
+
+    private void ensure(final int length) {
+        if (payload.remaining() < length) {
+            ByteBuffer grown = ByteBuffer.allocate(Math.max(payload.capacity() * 2, payload.position() + length));
+            payload.flip();
+            grown.put(payload);
+            payload = grown;
+        }
+    }
+
+    private void reserve(final int length) throws IOException {
+        if (out.remaining() < length)
+            drain();
+    }
+
+    private void drain() throws IOException {
+        out.flip();
+        while (out.hasRemaining()) {
+            channel.write(out);
+        }
+        out.clear();
+    }
+}
@@ -0,0 +1,130 @@
+package com.loxon.javachallenge.memory.journal;
+
+import com.loxon.javachallenge.memory.api.Game;
+import com.loxon.javachallenge.memory.api.MemoryState;
+import com.loxon.javachallenge.memory.api.Player;
+import com.loxon.javachallenge.memory.api.PlayerScore;
+import com.loxon.javachallenge.memory.api.communication.general.Command;
+import com.loxon.javachallenge.memory.api.communication.general.Response;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Game recording the registered players, the initial memory and the commands of every round
+ * into an append-only journal, then delegating to another game.
+ * The journal can be replayed with {@link JournalReplayer}.
+ */
+public class JournalingGame implements Game, Closeable {
+
+    private final Game game;
+    private final JournalWriter writer;
+    private final HashMap<Player, Integer> handles = new HashMap<>();
+
+    /**
+     * Creates a journaling game.
+     * @param game game executing the commands
+     * @param file journal file, truncated if it exists
+     * @param syncInterval number of rounds between forcing the journal to the disk, 0 to leave it to the system
+     * @throws IOException if the journal cannot be created
+     */
+    public JournalingGame(final Game game, final Path file, final int syncInterval) throws IOException {
+        this.game = game;
+        this.writer = new JournalWriter(file, syncInterval);
+    }
+
+    @Override
+    public Player registerPlayer(final String name) {
+        Player player = game.registerPlayer(name);
+        handles.put(player, handles.size() + 1);
+        writer.putString(name);
+        endRecord(JournalFormat.PLAYER);
+        return player;
+    }
+
+    /**
+     * Records the initial memory, streaming the states into the journal without copying the board.
+     */
+    @Override
+    public void startGame(final List<MemoryState> initialMemory, final int rounds) {
+        // A missing state would cut the record after its length is written
+        for (MemoryState state : initialMemory) {
+            Objects.requireNonNull(state, "Initial memory contains a null state.");
+        }
+        writer.putVarint(rounds);
+        writer.putVarint(initialMemory.size());
+        try {
+            writer.beginRecord(JournalFormat.START, initialMemory.size());
+            for (MemoryState state : initialMemory) {
+                writer.append((byte) state.ordinal());
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        game.startGame(initialMemory, rounds);
+    }
+
+    /**
+     * Records the commands, then executes them.
+     * @throws IllegalArgumentException if a command type cannot be journaled
+     */
+    @Override
+    public List<Response> nextRound(final Command... requests) {
+        writer.putVarint(requests.length);
+        try {
+            for (Command command : requests) {
+                encode(command);
+            }
+        } catch (RuntimeException e) {
+            writer.discardRecord();
+            throw e;
+        }
+        endRecord(JournalFormat.ROUND);
+        return game.nextRound(requests);
+    }
+
+    @Override
+    public List<PlayerScore> getScores() {
+        return game.getScores();
+    }
+
+    @Override
+    public String visualize() {
+        return game.visualize();
+    }
+
+    /**
+     * Writes the buffered records and forces them to the disk.
+     * @throws IOException if writing fails
+     */
+    public void sync() throws IOException {
+        writer.sync();
+    }
+
+    @Override
+    public void close() throws IOException {
+        writer.close();
+    }
+
+    private void endRecord(final byte tag) {
+        try {
+            writer.endRecord(tag);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Writes a command into the payload of the round record.
+     */
+    private void encode(final Command command) {
+        Integer handle = handles.get(command.getPlayer());
+        writer.putVarint(handle == null ? 0 : handle);
+        writer.putCommand(command);
+    }
+}
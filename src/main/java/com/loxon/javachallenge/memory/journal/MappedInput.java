@@ -0,0 +1,91 @@
+package com.loxon.javachallenge.memory.journal;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * Sequential reader over a file mapped window by window, so files larger than
+ * the address space of a single buffer can be read without loading them.
+ */
+final class MappedInput {
+
+    private static final int WINDOW = 1 << 28;
+
+    private final FileChannel channel;
+    private final long size;
+    private MappedByteBuffer buffer;
+    private long base;
+
+    MappedInput(final FileChannel channel) throws IOException {
+        this.channel = channel;
+        this.size = channel.size();
+        map(0, 0);
+    }
+
+    /**
+     * Absolute position of the next byte.
+     */
+    long position() {
+        return base + buffer.position();
+    }
+
+    /**
+     * Number of bytes left in the file.
+     */
+    long remaining() {
+        return size - position();
+    }
+
+    /**
+     * Makes the given number of bytes readable from the current window.
+     * @param length number of bytes, must not be more than {@link #remaining()}
+     */
+    void require(final int length) throws IOException {
+        if (buffer.remaining() < length)
+            map(position(), length);
+    }
+
+    /**
+     * Moves to an absolute position.
+     */
+    void seek(final long position) throws IOException {
+        if (position >= base && position <= base + buffer.limit())
+            buffer.position((int) (position - base));
+        else
+            map(position, 0);
+    }
+
+    /**
+     * Current window, positioned at the next byte. Reading from it advances the input.
+     */
+    ByteBuffer buffer() {
+        return buffer;
+    }
+
+    byte readByte() {
+        return buffer.get();
+    }
+
+    long readVarint() {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            byte b = buffer.get();
+            value |= (long) (b & 0x7F) << shift;
+            if (b >= 0)
+                return value;
+        }
+        throw new IllegalStateException("Malformed varint at " + position());
+    }
+
+    void readBytes(final byte[] target, final int length) {
+        buffer.get(target, 0, length);
+    }
+
+    private void map(final long position, final int length) throws IOException {
+        base = position;
+        long windowLength = Math.min(size - position, Math.max(WINDOW, length));
+        buffer = channel.map(FileChannel.MapMode.READ_ONLY, position, windowLength);
+    }
+}
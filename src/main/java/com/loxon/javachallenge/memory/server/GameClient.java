@@ -0,0 +1,175 @@
+package com.loxon.javachallenge.memory.server;
+
+import com.loxon.javachallenge.memory.api.Player;
+import com.loxon.javachallenge.memory.api.communication.general.Command;
+import com.loxon.javachallenge.memory.api.communication.general.Response;
+import com.loxon.javachallenge.memory.codec.MessageCodec;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.ProtocolException;
+import java.net.StandardSocketOptions;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.util.UUID;
+
+/**
+ * Connection of a remote player to a {@link GameServer}.
+ * Commands are executed one at a time, a call returns when the round of the command is played.
+ */
+public class GameClient implements Closeable {
+
+    private final SocketChannel channel;
+    private final Player player;
+    private ByteBuffer out = ByteBuffer.allocateDirect(256);
+    private ByteBuffer in = ByteBuffer.allocateDirect(1024);
+    private int nextRequest;
+
+    /**
+     * Connects and logs in.
+     * @param address address of the server
+     * @param playerId id of a player registered in the game of the server
+     * @param loginToken token of the player, see {@link GameServer#getLoginToken(Player)}
+     * @throws IOException if the connection fails
+     * @throws IllegalArgumentException if the player is not registered or the token is wrong
+     */
+    public GameClient(final InetSocketAddress address, final UUID playerId, final byte[] loginToken)
+            throws IOException {
+        if (loginToken.length != Protocol.TOKEN_LENGTH)
+            throw new IllegalArgumentException("Login token must be " + Protocol.TOKEN_LENGTH + " bytes long.");
+        channel = SocketChannel.open(address);
+        try {
+            channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+            in.flip();
+            int start = Protocol.beginFrame(out, Protocol.LOGIN);
+            Protocol.putId(out, playerId);
+            out.put(loginToken);
+            Protocol.endFrame(out, start);
+            send();
+
+            int end = receive();
+            byte type = in.get();
+            if (type == Protocol.ERROR) {
+                in.getInt();
+                throw error(end);
+            }
+            if (type != Protocol.WELCOME)
+                throw new ProtocolException("Unexpected frame type: " + type);
+            String name = MessageCodec.getString(in);
+            in.position(end);
+            player = new Player(name, () -> playerId);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Player of the connection, equal to the player registered on the server.
+     * @return logged in player
+     */
+    public Player getPlayer() {
+        return player;
+    }
+
+    /**
+     * Sends a command and waits for its response. The player of the command is ignored,
+     * the server executes it for the logged in player.
+     * @param command command to execute
+     * @return response of the command, null if the game gave no response
+     * @throws IOException if the connection fails
+     * @throws IllegalStateException if the player already sent a command in the round
+     */
+    public synchronized Response execute(final Command command) throws IOException {
+        int request = ++nextRequest;
+        out.clear();
+        while (true) {
+            try {
+                int start = Protocol.beginFrame(out, Protocol.COMMAND);
+                out.putInt(request);
+                MessageCodec.encode(out, command);
+                Protocol.endFrame(out, start);
+                break;
+            } catch (BufferOverflowException e) {
+                out = ByteBuffer.allocateDirect(out.capacity() * 2);
+            }
+        }
+        send();
+
+        while (true) {
+            int end = receive();
+            byte type = in.get();
+            if (type != Protocol.RESPONSE && type != Protocol.ERROR)
+                throw new ProtocolException("Unexpected frame type: " + type);
+            if (in.remaining() < 4)
+                throw new ProtocolException("Truncated frame");
+            if (in.getInt() != request) {
+                // Reply of an earlier, abandoned request
+                in.position(end);
+                continue;
+            }
+            if (type == Protocol.ERROR)
+                throw error(end);
+            Response response = MessageCodec.decodeResponse(in, player);
+            in.position(end);
+            return response;
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    private void send() throws IOException {
+        out.flip();
+        while (out.hasRemaining()) {
+            channel.write(out);
+        }
+        out.clear();
+    }
+
+    /**
+     * Reads a whole frame, the buffer is positioned after the length of the frame.
+     * @return end position of the frame
+     */
+    private int receive() throws IOException {
+        fill(4);
+        int length = Protocol.frameLength(in);
+        fill(length);
+        in.position(in.position() + 4);
+        return in.position() + length - 4;
+    }
+
+    private void fill(final int length) throws IOException {
+        while (in.remaining() < length) {
+            in.compact();
+            if (in.capacity() < length) {
+                ByteBuffer grown = ByteBuffer.allocateDirect(length);
+                in.flip();
+                grown.put(in);
+                in = grown;
+            }
+            int read = channel.read(in);
+            in.flip();
+            if (read < 0)
+                throw new EOFException("Connection closed by the server");
+        }
+    }
+
+    /**
+     * Decodes the rest of an error frame into the exception thrown by the server.
+     */
+    private RuntimeException error(final int end) throws IOException {
+        if (in.remaining() < 2)
+            throw new ProtocolException("Truncated frame");
+        byte code = in.get();
+        String message = MessageCodec.getString(in);
+        in.position(end);
+        return code == Protocol.ILLEGAL_ARGUMENT
+                ? new IllegalArgumentException(message) : new IllegalStateException(message);
+    }
+}
@@ -0,0 +1,448 @@
+package com.loxon.javachallenge.memory.server;
+
+import com.loxon.javachallenge.memory.api.Player;
+import com.loxon.javachallenge.memory.api.communication.general.Command;
+import com.loxon.javachallenge.memory.api.communication.general.Response;
+import com.loxon.javachallenge.memory.codec.MessageCodec;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.ProtocolException;
+import java.net.StandardSocketOptions;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Hosts a game for remote players connecting with {@link GameClient}.
+ * <p>
+ * Connections are non-blocking and are served by a few event loops, each owning a selector.
+ * The first loop also accepts the connections and deals them out to the loops. A connection logs in
+ * with the id of a player registered in the collector and the login token the server generated for the player,
+ * see {@link #getLoginToken(Player)}, then its commands are submitted to the collector.
+ * Responses are completed on the thread of the collector, they are handed back to the loop of the
+ * connection and written from there, so the buffers of a connection are only touched by its loop.
+ */
+public class GameServer implements Closeable {
+
+    private static final int INITIAL_BUFFER = 512;
+
+    private final RoundCollector collector;
+    private final Map<UUID, Account> accounts = new HashMap<>();
+    private final ServerSocketChannel server;
+    private final Loop[] loops;
+    private final AtomicInteger connections = new AtomicInteger();
+    private volatile boolean running = true;
+    private int nextLoop;
+
+    /**
+     * Starts a server.
+     * @param collector started collector with the registered players
+     * @param address address to listen on, port 0 for any free port
+     * @param threads number of event loops
+     * @throws IOException if the address cannot be bound
+     */
+    public GameServer(final RoundCollector collector, final InetSocketAddress address, final int threads)
+            throws IOException {
+        if (threads < 1)
+            throw new IllegalArgumentException("At least one thread is needed.");
+        this.collector = collector;
+        SecureRandom random = new SecureRandom();
+        for (Player player : collector.getPlayers()) {
+            byte[] token = new byte[Protocol.TOKEN_LENGTH];
+            random.nextBytes(token);
+            accounts.put(player.getId(), new Account(player, token));
+        }
+        server = ServerSocketChannel.open();
+        server.configureBlocking(false);
+        server.bind(address, 4096);
+        loops = new Loop[threads];
+        for (int i = 0; i < threads; i++) {
+            loops[i] = new Loop(i);
+        }
+        server.register(loops[0].selector, SelectionKey.OP_ACCEPT);
+        for (Loop loop : loops) {
+            loop.thread.start();
+        }
+    }
+
+    /**
+     * Secret the player has to present when logging in. Ids of players are public, so the token
+     * has to be handed to the player over a trusted channel.
+     * @param player player registered in the collector before the server was started
+     * @return login token of the player
+     * @throws IllegalArgumentException if the player is not known by the server
+     */
+    public byte[] getLoginToken(final Player player) {
+        Account account = accounts.get(player.getId());
+        if (account == null || !account.player.equals(player))
+            throw new IllegalArgumentException("Player is not registered.");
+        return account.token.clone();
+    }
+
+    /**
+     * Address the server listens on.
+     * @return bound address
+     * @throws IOException if the address cannot be queried
+     */
+    public InetSocketAddress getAddress() throws IOException {
+        return (InetSocketAddress) server.getLocalAddress();
+    }
+
+    /**
+     * Number of open connections.
+     * @return number of connections
+     */
+    public int getConnectionCount() {
+        return connections.get();
+    }
+
+    /**
+     * Stops the event loops and closes every connection. The collector is not closed.
+     * @throws IOException if the listening socket cannot be closed
+     */
+    @Override
+    public void close() throws IOException {
+        running = false;
+        for (Loop loop : loops) {
+            loop.selector.wakeup();
+        }
+        for (Loop loop : loops) {
+            try {
+                loop.thread.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        server.close();
+    }
+
+    private static ByteBuffer grow(final ByteBuffer buffer, final int capacity) {
+        ByteBuffer grown = ByteBuffer.allocateDirect(capacity);
+        buffer.flip();
+        grown.put(buffer);
+        return grown;
+    }
+
+    /**
+     * Event loop serving the connections registered in its selector.
+     */
+    private final class Loop implements Runnable {
+        private final Selector selector;
+        private final Thread thread;
+        private final ConcurrentLinkedQueue<SocketChannel> accepted = new ConcurrentLinkedQueue<>();
+        private final ConcurrentLinkedQueue<Connection> ready = new ConcurrentLinkedQueue<>();
+        private final AtomicBoolean woken = new AtomicBoolean();
+
+        private Loop(final int index) throws IOException {
+            selector = Selector.open();
+            thread = new Thread(this, "game-server-" + index);
+            thread.setDaemon(true);
+        }
+
+        /**
+         * Wakes up the selector, at most once per select.
+         */
+        private void wakeup() {
+            if (woken.compareAndSet(false, true))
+                selector.wakeup();
+        }
+
+        @Override
+        public void run() {
+            try {
+                while (running) {
+                    selector.select();
+                    woken.set(false);
+                    SocketChannel channel;
+                    while ((channel = accepted.poll()) != null) {
+                        register(channel);
+                    }
+                    Connection connection;
+                    while ((connection = ready.poll()) != null) {
+                        connection.flush();
+                    }
+                    Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+                    while (keys.hasNext()) {
+                        SelectionKey key = keys.next();
+                        keys.remove();
+                        if (!key.isValid())
+                            continue;
+                        if (key.isAcceptable())
+                            accept();
+                        else
+                            ((Connection) key.attachment()).handle(key);
+                    }
+                }
+            } catch (IOException e) {
+                // The selector is broken, the connections of the loop are dropped
+            } finally {
+                for (SelectionKey key : selector.keys()) {
+                    if (key.attachment() instanceof Connection)
+                        ((Connection) key.attachment()).close();
+                }
+                try {
+                    selector.close();
+                } catch (IOException e) {
+                    // Nothing to do
+                }
+            }
+        }
+
+        private void accept() {
+            SocketChannel channel;
+            while ((channel = acceptNext()) != null) {
+                Loop loop = loops[nextLoop];
+                nextLoop = (nextLoop + 1) % loops.length;
+                if (loop == this) {
+                    register(channel);
+                } else {
+                    loop.accepted.add(channel);
+                    loop.wakeup();
+                }
+            }
+        }
+
+        /**
+         * Accepts a pending connection. Failures, like running out of file descriptors, leave the
+         * connection in the backlog for the next select instead of stopping the loop.
+         */
+        private SocketChannel acceptNext() {
+            try {
+                return server.accept();
+            } catch (IOException e) {
+                return null;
+            }
+        }
+
+        private void register(final SocketChannel channel) {
+            try {
+                channel.configureBlocking(false);
+                channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+                Connection connection = new Connection(this, channel);
+                connection.key = channel.register(selector, SelectionKey.OP_READ, connection);
+                connections.incrementAndGet();
+            } catch (IOException e) {
+                try {
+                    channel.close();
+                } catch (IOException ignored) {
+                    // Nothing to do
+                }
+            }
+        }
+    }
+
+    /**
+     * Registered player with its login token.
+     */
+    private static final class Account {
+        final Player player;
+        final byte[] token;
+
+        Account(final Player player, final byte[] token) {
+            this.player = player;
+            this.token = token;
+        }
+    }
+
+    /**
+     * Reply to a command, waiting to be written by the loop of the connection.
+     */
+    private static final class Reply {
+        final int request;
+        final Response response;
+        final Throwable error;
+
+        Reply(final int request, final Response response, final Throwable error) {
+            this.request = request;
+            this.response = response;
+            this.error = error;
+        }
+    }
+
+    /**
+     * State of a connection, only touched by its loop except for the queue of replies.
+     */
+    private final class Connection {
+        private final Loop loop;
+        private final SocketChannel channel;
+        private final ConcurrentLinkedQueue<Reply> replies = new ConcurrentLinkedQueue<>();
+        private SelectionKey key;
+        private ByteBuffer in = ByteBuffer.allocateDirect(INITIAL_BUFFER);
+        private ByteBuffer out = ByteBuffer.allocateDirect(INITIAL_BUFFER);
+        private Player player;
+
+        private Connection(final Loop loop, final SocketChannel channel) {
+            this.loop = loop;
+            this.channel = channel;
+        }
+
+        private void handle(final SelectionKey key) {
+            try {
+                if (key.isReadable())
+                    read();
+                if (key.isValid() && key.isWritable())
+                    write();
+            } catch (IOException | RuntimeException e) {
+                close();
+            }
+        }
+
+        private void read() throws IOException {
+            if (channel.read(in) < 0) {
+                close();
+                return;
+            }
+            in.flip();
+            int length;
+            while ((length = Protocol.frameLength(in)) > 0 && length <= in.remaining()) {
+                int limit = in.limit();
+                int end = in.position() + length;
+                in.limit(end);
+                in.position(in.position() + 4);
+                frame();
+                in.limit(limit);
+                in.position(end);
+            }
+            in.compact();
+            if (length > in.capacity())
+                in = grow(in, length);
+            write();
+        }
+
+        private void frame() throws IOException {
+            byte type = in.get();
+            switch (type) {
+                case Protocol.LOGIN: {
+                    Account account = accounts.get(Protocol.getId(in));
+                    byte[] token = Protocol.getToken(in);
+                    // Unknown players and wrong tokens get the same error, so ids cannot be probed
+                    if (account == null || !MessageDigest.isEqual(account.token, token)) {
+                        error(0, Protocol.ILLEGAL_ARGUMENT, "Invalid player or login token.");
+                    } else {
+                        Player login = account.player;
+                        player = login;
+                        encode(() -> {
+                            int start = Protocol.beginFrame(out, Protocol.WELCOME);
+                            MessageCodec.putString(out, login.getName());
+                            Protocol.endFrame(out, start);
+                        });
+                    }
+                    break;
+                }
+                case Protocol.COMMAND: {
+                    if (in.remaining() < 4)
+                        throw new ProtocolException("Truncated frame");
+                    int request = in.getInt();
+                    if (player == null) {
+                        error(request, Protocol.ILLEGAL_STATE, "Not logged in.");
+                        break;
+                    }
+                    Command command = MessageCodec.decodeCommand(in, player);
+                    collector.submit(command).whenComplete((response, error) -> {
+                        replies.add(new Reply(request, response, error));
+                        loop.ready.add(this);
+                        loop.wakeup();
+                    });
+                    break;
+                }
+                default:
+                    throw new ProtocolException("Unknown frame type: " + type);
+            }
+        }
+
+        /**
+         * Writes the queued replies, called by the loop after a wakeup.
+         */
+        private void flush() {
+            if (!key.isValid())
+                return;
+            try {
+                Reply reply;
+                while ((reply = replies.poll()) != null) {
+                    reply(reply);
+                }
+                write();
+            } catch (IOException | RuntimeException e) {
+                close();
+            }
+        }
+
+        private void reply(final Reply reply) {
+            if (reply.error != null) {
+                byte code = reply.error instanceof IllegalArgumentException
+                        ? Protocol.ILLEGAL_ARGUMENT : Protocol.ILLEGAL_STATE;
+                error(reply.request, code, reply.error.getMessage());
+            } else {
+                encode(() -> {
+                    int start = Protocol.beginFrame(out, Protocol.RESPONSE);
+                    out.putInt(reply.request);
+                    MessageCodec.encode(out, reply.response);
+                    Protocol.endFrame(out, start);
+                });
+            }
+        }
+
+        private void error(final int request, final byte code, final String message) {
+            encode(() -> {
+                int start = Protocol.beginFrame(out, Protocol.ERROR);
+                out.putInt(request);
+                out.put(code);
+                MessageCodec.putString(out, message == null ? "" : message);
+                Protocol.endFrame(out, start);
+            });
+        }
+
+        /**
+         * Appends a frame to the output buffer, growing the buffer until the frame fits.
+         */
+        private void encode(final Runnable frame) {
+            int start = out.position();
+            while (true) {
+                try {
+                    frame.run();
+                    return;
+                } catch (BufferOverflowException e) {
+                    out.position(start);
+                    out = grow(out, out.capacity() * 2);
+                }
+            }
+        }
+
+        private void write() throws IOException {
+            if (out.position() == 0)
+                return;
+            out.flip();
+            channel.write(out);
+            boolean pending = out.hasRemaining();
+            out.compact();
+            key.interestOps(pending ? SelectionKey.OP_READ | SelectionKey.OP_WRITE : SelectionKey.OP_READ);
+        }
+
+        private void close() {
+            if (!channel.isOpen())
+                return;
+            key.cancel();
+            try {
+                channel.close();
+            } catch (IOException e) {
+                // Nothing to do
+            }
+            connections.decrementAndGet();
+        }
+    }
+}
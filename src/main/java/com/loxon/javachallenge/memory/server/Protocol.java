@@ -0,0 +1,94 @@
+package com.loxon.javachallenge.memory.server;
+
+import com.loxon.javachallenge.memory.codec.MalformedMessageException;
+
+import java.net.ProtocolException;
+import java.nio.ByteBuffer;
+import java.util.UUID;
+
+/**
+ * Binary protocol between {@link GameServer} and {@link GameClient}.
+ * <p>
+ * Every frame starts with its length as a big-endian int, not counting the length itself,
+ * followed by the frame type. Commands and responses are encoded with
+ * {@link com.loxon.javachallenge.memory.codec.MessageCodec}, strings are varint lengths and UTF-8 bytes.
+ * <pre>
+ * LOGIN    id of the player as two longs, login token of the player
+ * WELCOME  name of the player
+ * COMMAND  request id as int, command
+ * RESPONSE request id as int, response
+ * ERROR    request id as int, error code, message
+ * </pre>
+ */
+final class Protocol {
+
+    /**
+     * Maximum length of a frame.
+     */
+    static final int MAX_FRAME = 1 << 20;
+
+    /**
+     * Length of a login token in bytes.
+     */
+    static final int TOKEN_LENGTH = 32;
+
+    static final byte LOGIN = 1;
+    static final byte WELCOME = 2;
+    static final byte COMMAND = 3;
+    static final byte RESPONSE = 4;
+    static final byte ERROR = 5;
+
+    static final byte ILLEGAL_ARGUMENT = 1;
+    static final byte ILLEGAL_STATE = 2;
+
+    private Protocol() {
+    }
+
+    /**
+     * Starts a frame. The buffer may overflow while the frame is written.
+     * @return position of the frame, to be passed to {@link #endFrame(ByteBuffer, int)}
+     */
+    static int beginFrame(final ByteBuffer buffer, final byte type) {
+        int start = buffer.position();
+        buffer.putInt(0);
+        buffer.put(type);
+        return start;
+    }
+
+    static void endFrame(final ByteBuffer buffer, final int start) {
+        buffer.putInt(start, buffer.position() - start - 4);
+    }
+
+    /**
+     * Length of the frame at the position of the buffer.
+     * @return length including the length field, or 0 if the length is not received yet
+     * @throws ProtocolException if the length is invalid
+     */
+    static int frameLength(final ByteBuffer buffer) throws ProtocolException {
+        if (buffer.remaining() < 4)
+            return 0;
+        int length = buffer.getInt(buffer.position());
+        if (length < 1 || length > MAX_FRAME)
+            throw new ProtocolException("Invalid frame length: " + length);
+        return length + 4;
+    }
+
+    static void putId(final ByteBuffer buffer, final UUID id) {
+        buffer.putLong(id.getMostSignificantBits());
+        buffer.putLong(id.getLeastSignificantBits());
+    }
+
+    static UUID getId(final ByteBuffer buffer) throws MalformedMessageException {
+        if (buffer.remaining() < 16)
+            throw new MalformedMessageException("Truncated frame");
+        return new UUID(buffer.getLong(), buffer.getLong());
+    }
+
+    static byte[] getToken(final ByteBuffer buffer) throws MalformedMessageException {
+        if (buffer.remaining() < TOKEN_LENGTH)
+            throw new MalformedMessageException("Truncated frame");
+        byte[] token = new byte[TOKEN_LENGTH];
+        buffer.get(token);
+        return token;
+    }
+}
@@ -0,0 +1,274 @@
+package com.loxon.javachallenge.memory.server;
+
+import com.loxon.javachallenge.memory.api.Game;
+import com.loxon.javachallenge.memory.api.Player;
+import com.loxon.javachallenge.memory.api.communication.general.Command;
+import com.loxon.javachallenge.memory.api.communication.general.Response;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Asynchronous front-end of a {@link Game}: players submit their commands independently,
+ * and the collector plays a round when every player has submitted or when the round times out.
+ * <p>
+ * Every player has a slot in the inbox of the round. A submission is a compare-and-set of the empty slot,
+ * so the one-command-per-player rule is enforced without locks, and submitters of different players
+ * never write the same memory. Submissions are counted in stripes of {@value #STRIPE} players, padded to
+ * separate cache lines, so the count of a round is not a single contended counter. Rounds are played on the single thread of the collector, so the game
+ * does not need to be thread-safe. Games reusing their responses must not be used.
+ */
+public class RoundCollector implements AutoCloseable {
+
+    /**
+     * Number of players sharing a submission counter.
+     */
+    static final int STRIPE = 1024;
+    private static final int PADDING = 16;
+    private static final Submission CLOSED = new Submission(null);
+
+    private final Game game;
+    private final long timeoutNanos;
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "round-collector");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final List<Player> players = new ArrayList<>();
+    private final ConcurrentHashMap<Player, Integer> slots = new ConcurrentHashMap<>();
+    private final AtomicReference<Round> current = new AtomicReference<>();
+    private volatile int rounds;
+    private boolean closed;
+
+    /**
+     * Creates a collector.
+     * @param game started game, driven only by the collector from now on
+     * @param timeout time limit of a round, counted from the start of the round,
+     * when the responses of the previous round are available
+     * @param unit unit of the time limit
+     */
+    public RoundCollector(final Game game, final long timeout, final TimeUnit unit) {
+        this.game = game;
+        this.timeoutNanos = unit.toNanos(timeout);
+    }
+
+    /**
+     * Registers a player in the game and in the collector. Players must be registered before {@link #start()}.
+     * @param name name of the player
+     * @return the new player
+     */
+    public synchronized Player registerPlayer(final String name) {
+        if (current.get() != null)
+            throw new IllegalStateException("Collector is already started.");
+        Player player = game.registerPlayer(name);
+        slots.put(player, players.size());
+        players.add(player);
+        return player;
+    }
+
+    /**
+     * Players registered in the collector.
+     * @return read-only list of the players in registration order
+     */
+    public List<Player> getPlayers() {
+        return Collections.unmodifiableList(players);
+    }
+
+    /**
+     * Opens the first round.
+     */
+    public synchronized void start() {
+        if (closed)
+            throw new IllegalStateException("Collector is closed.");
+        if (current.get() != null)
+            throw new IllegalStateException("Collector is already started.");
+        openRound();
+    }
+
+    /**
+     * Submits the command of a player for the open round.
+     * @param command command of a registered player
+     * @return response of the command, completed when the round is played. It completes with null
+     * if the game gives no response, and exceptionally if the player is unknown,
+     * it already submitted a command in the round, or the collector is closed.
+     */
+    public CompletableFuture<Response> submit(final Command command) {
+        Submission submission = new Submission(command);
+        Integer slot = slots.get(command.getPlayer());
+        if (slot == null) {
+            submission.response.completeExceptionally(new IllegalArgumentException("Player is not registered."));
+            return submission.response;
+        }
+        while (true) {
+            Round round = current.get();
+            if (round == null) {
+                submission.response.completeExceptionally(new IllegalStateException("Collector is not running."));
+                return submission.response;
+            }
+            if (round.inbox.compareAndSet(slot, null, submission)) {
+                if (round.submitted(slot)) {
+                    try {
+                        scheduler.execute(() -> closeRound(round));
+                    } catch (RejectedExecutionException e) {
+                        // close() rejects the submissions of the round as well
+                        submission.response.completeExceptionally(new IllegalStateException("Collector is closed."));
+                    }
+                }
+                return submission.response;
+            }
+            if (round.inbox.get(slot) != CLOSED) {
+                submission.response.completeExceptionally(
+                        new IllegalStateException("Player already submitted a command in this round."));
+                return submission.response;
+            }
+            // The round is being closed, retry in the next one
+            Thread.yield();
+        }
+    }
+
+    /**
+     * Number of rounds played so far.
+     * @return number of rounds
+     */
+    public int getRounds() {
+        return rounds;
+    }
+
+    /**
+     * Stops playing rounds. Commands of the open round are not played, their responses complete exceptionally.
+     */
+    @Override
+    public synchronized void close() {
+        closed = true;
+        Round round = current.getAndSet(null);
+        scheduler.shutdownNow();
+        if (round != null)
+            reject(round);
+    }
+
+    /**
+     * Closes the inbox of a round and completes its submissions exceptionally.
+     */
+    private static void reject(final Round round) {
+        for (int slot = 0; slot < round.inbox.length(); slot++) {
+            Submission submission = round.inbox.getAndSet(slot, CLOSED);
+            if (submission != null && submission != CLOSED)
+                submission.response.completeExceptionally(new IllegalStateException("Collector is closed."));
+        }
+    }
+
+    /**
+     * Opens the next round unless the collector is closed. Exclusive with {@link #close()},
+     * so a closed collector never gets a new round.
+     */
+    private synchronized void openRound() {
+        if (closed)
+            return;
+        Round round = new Round(players.size());
+        current.set(round);
+        try {
+            round.deadline = scheduler.schedule(() -> closeRound(round), timeoutNanos, TimeUnit.NANOSECONDS);
+        } catch (RejectedExecutionException e) {
+            current.compareAndSet(round, null);
+            reject(round);
+        }
+    }
+
+    /**
+     * Plays a round, runs on the thread of the scheduler.
+     */
+    private void closeRound(final Round round) {
+        if (!round.closing.compareAndSet(false, true) || current.get() != round)
+            return;
+        // Every player may submit before start() has scheduled the deadline of the first round
+        ScheduledFuture<?> deadline = round.deadline;
+        if (deadline != null)
+            deadline.cancel(false);
+
+        // Late submitters find the closed slots and retry until the next round is open
+        List<Command> commands = new ArrayList<>();
+        Submission[] submissions = new Submission[round.inbox.length()];
+        for (int slot = 0; slot < submissions.length; slot++) {
+            Submission submission = round.inbox.getAndSet(slot, CLOSED);
+            if (submission != null && submission != CLOSED) {
+                submissions[slot] = submission;
+                commands.add(submission.command);
+            }
+        }
+
+        List<Response> responses = null;
+        RuntimeException failure = null;
+        try {
+            responses = game.nextRound(commands.toArray(new Command[0]));
+        } catch (RuntimeException e) {
+            failure = e;
+        }
+        rounds++;
+        // The time limit of the next round starts when the responses of this one are available
+        openRound();
+        if (failure != null) {
+            for (Submission submission : submissions) {
+                if (submission != null)
+                    submission.response.completeExceptionally(failure);
+            }
+            return;
+        }
+        for (Response response : responses) {
+            Integer slot = slots.get(response.getPlayer());
+            if (slot != null && submissions[slot] != null)
+                submissions[slot].response.complete(response);
+        }
+        for (Submission submission : submissions) {
+            if (submission != null)
+                submission.response.complete(null);
+        }
+    }
+
+    private static final class Submission {
+        final Command command;
+        final CompletableFuture<Response> response = new CompletableFuture<>();
+
+        Submission(final Command command) {
+            this.command = command;
+        }
+    }
+
+    private static final class Round {
+        final AtomicReferenceArray<Submission> inbox;
+        final AtomicIntegerArray missing;
+        final AtomicInteger missingStripes;
+        final AtomicBoolean closing = new AtomicBoolean();
+        volatile ScheduledFuture<?> deadline;
+
+        Round(final int players) {
+            inbox = new AtomicReferenceArray<>(players);
+            int stripes = (players + STRIPE - 1) / STRIPE;
+            missing = new AtomicIntegerArray(stripes * PADDING);
+            for (int stripe = 0; stripe < stripes; stripe++) {
+                missing.set(stripe * PADDING, Math.min(STRIPE, players - stripe * STRIPE));
+            }
+            missingStripes = new AtomicInteger(stripes);
+        }
+
+        /**
+         * Counts a submission.
+         * @return whether every player has submitted
+         */
+        boolean submitted(final int slot) {
+            return missing.decrementAndGet(slot / STRIPE * PADDING) == 0 && missingStripes.decrementAndGet() == 0;
+        }
+    }
+}
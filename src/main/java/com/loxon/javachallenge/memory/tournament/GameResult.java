@@ -0,0 +1,45 @@
+package com.loxon.javachallenge.memory.tournament;
+
+import com.loxon.javachallenge.memory.api.PlayerScore;
+
+import java.util.List;
+
+/**
+ * Final scores of a single tournament game.
+ */
+public final class GameResult {
+
+    private final int game;
+    private final long seed;
+    private final List<PlayerScore> scores;
+
+    GameResult(final int game, final long seed, final List<PlayerScore> scores) {
+        this.game = game;
+        this.seed = seed;
+        this.scores = scores;
+    }
+
+    /**
+     * Index of the game in the tournament.
+     * @return game index
+     */
+    public int getGame() {
+        return game;
+    }
+
+    /**
+     * Seed the game was played with.
+     * @return seed
+     */
+    public long getSeed() {
+        return seed;
+    }
+
+    /**
+     * Scores of the players, in the order the strategies were added to the tournament.
+     * @return list of scores
+     */
+    public List<PlayerScore> getScores() {
+        return scores;
+    }
+}
@@ -0,0 +1,80 @@
+package com.loxon.javachallenge.memory.tournament;
+
+import com.loxon.javachallenge.memory.api.Player;
+import com.loxon.javachallenge.memory.api.communication.general.Response;
+
+import java.util.Random;
+
+/**
+ * Information available to a bot strategy when choosing its next command.
+ */
+public final class PlayerView {
+
+    private final Player player;
+    private final Random random;
+    private final int cellCount;
+    private final int rounds;
+    private int round;
+    private Response lastResponse;
+
+    PlayerView(final Player player, final Random random, final int cellCount, final int rounds) {
+        this.player = player;
+        this.random = random;
+        this.cellCount = cellCount;
+        this.rounds = rounds;
+    }
+
+    /**
+     * Player controlled by the strategy, commands must be sent in its name.
+     * @return player
+     */
+    public Player getPlayer() {
+        return player;
+    }
+
+    /**
+     * Random generator of the player, seeded from the game seed.
+     * Strategies must use it instead of their own source to keep runs reproducible.
+     * @return random generator
+     */
+    public Random getRandom() {
+        return random;
+    }
+
+    /**
+     * Number of cells on the board.
+     * @return number of cells
+     */
+    public int getCellCount() {
+        return cellCount;
+    }
+
+    /**
+     * Zero-based index of the round being played.
+     * @return round index
+     */
+    public int getRound() {
+        return round;
+    }
+
+    /**
+     * Number of rounds left, including the current one.
+     * @return number of rounds
+     */
+    public int getRemainingRounds() {
+        return rounds - round;
+    }
+
+    /**
+     * Response of the previous round.
+     * @return response, or null in the first round or if there was none
+     */
+    public Response getLastResponse() {
+        return lastResponse;
+    }
+
+    void update(final int round, final Response lastResponse) {
+        this.round = round;
+        this.lastResponse = lastResponse;
+    }
+}
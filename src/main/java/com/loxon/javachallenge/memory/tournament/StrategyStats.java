@@ -0,0 +1,106 @@
+package com.loxon.javachallenge.memory.tournament;
+
+import com.loxon.javachallenge.memory.api.PlayerScore;
+
+/**
+ * Aggregated results of a strategy over the games of a tournament.
+ */
+public final class StrategyStats {
+
+    private final String name;
+    private int games;
+    private int wins;
+    private long totalScore;
+    private long ownedCells;
+    private long ownedBlocks;
+    private long fortifiedCells;
+    private int minScore = Integer.MAX_VALUE;
+    private int maxScore = Integer.MIN_VALUE;
+
+    StrategyStats(final String name) {
+        this.name = name;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Number of games played.
+     * @return number of games
+     */
+    public int getGames() {
+        return games;
+    }
+
+    /**
+     * Number of games where the strategy had the highest score alone.
+     * @return number of games
+     */
+    public int getWins() {
+        return wins;
+    }
+
+    public long getTotalScore() {
+        return totalScore;
+    }
+
+    public double getAverageScore() {
+        return games == 0 ? 0 : (double) totalScore / games;
+    }
+
+    public long getOwnedCells() {
+        return ownedCells;
+    }
+
+    public long getOwnedBlocks() {
+        return ownedBlocks;
+    }
+
+    public long getFortifiedCells() {
+        return fortifiedCells;
+    }
+
+    public int getMinScore() {
+        return minScore;
+    }
+
+    public int getMaxScore() {
+        return maxScore;
+    }
+
+    void add(final PlayerScore score, final boolean win) {
+        games++;
+        if (win)
+            wins++;
+        totalScore += score.getTotalScore();
+        ownedCells += score.getOwnedCells();
+        ownedBlocks += score.getOwnedBlocks();
+        fortifiedCells += score.getFortifiedCells();
+        minScore = Math.min(minScore, score.getTotalScore());
+        maxScore = Math.max(maxScore, score.getTotalScore());
+    }
+
+    void merge(final StrategyStats other) {
+        games += other.games;
+        wins += other.wins;
+        totalScore += other.totalScore;
+        ownedCells += other.ownedCells;
+        ownedBlocks += other.ownedBlocks;
+        fortifiedCells += other.fortifiedCells;
+        minScore = Math.min(minScore, other.minScore);
+        maxScore = Math.max(maxScore, other.maxScore);
+    }
+
+    @Override
+    public String toString() {
+        return "StrategyStats{" +
+                "name='" + name + '\'' +
+                ", games=" + games +
+                ", wins=" + wins +
+                ", averageScore=" + getAverageScore() +
+                ", minScore=" + minScore +
+                ", maxScore=" + maxScore +
+                '}';
+    }
+}
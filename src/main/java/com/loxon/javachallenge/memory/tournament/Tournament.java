@@ -0,0 +1,189 @@
+package com.loxon.javachallenge.memory.tournament;
+
+import com.loxon.javachallenge.memory.api.Game;
+import com.loxon.javachallenge.memory.api.MemoryState;
+import com.loxon.javachallenge.memory.api.Player;
+import com.loxon.javachallenge.memory.api.PlayerScore;
+import com.loxon.javachallenge.memory.api.communication.general.Command;
+import com.loxon.javachallenge.memory.api.communication.general.Response;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Plays many independent games between bot strategies in parallel.
+ * Every game gets its own {@link Game} instance, board and seed derived from the tournament seed,
+ * so a run is reproducible regardless of the number of threads executing it.
+ */
+public class Tournament {
+
+    private static final int GAMES_PER_TASK = 8;
+
+    private final Supplier<Game> gameFactory;
+    private final Function<Random, List<MemoryState>> boardFactory;
+    private final int rounds;
+    private final List<String> names = new ArrayList<>();
+    private final List<Function<PlayerView, Command>> strategies = new ArrayList<>();
+    private Consumer<GameResult> listener;
+
+    /**
+     * Creates a tournament.
+     * @param gameFactory creates a new, empty game instance for every game
+     * @param boardFactory creates a new initial memory for every game from the random generator of the game
+     * @param rounds number of rounds of a game
+     */
+    public Tournament(final Supplier<Game> gameFactory, final Function<Random, List<MemoryState>> boardFactory,
+                      final int rounds) {
+        this.gameFactory = gameFactory;
+        this.boardFactory = boardFactory;
+        this.rounds = rounds;
+    }
+
+    /**
+     * Adds a strategy playing in every game of the tournament.
+     * A strategy may return null to skip a round, and must be safe to call from multiple threads
+     * for different games.
+     * @param name name of the strategy, used as player name
+     * @param strategy chooses the next command of the player
+     */
+    public void addStrategy(final String name, final Function<PlayerView, Command> strategy) {
+        names.add(name);
+        strategies.add(strategy);
+    }
+
+    /**
+     * Sets a listener receiving the result of every game as soon as it is finished.
+     * The listener is called from the worker threads, in no particular order.
+     * @param listener result listener, null to remove
+     */
+    public void setListener(final Consumer<GameResult> listener) {
+        this.listener = listener;
+    }
+
+    /**
+     * Plays the games on the common fork-join pool.
+     * @param games number of games
+     * @param seed seed of the tournament
+     * @return aggregated results
+     */
+    public TournamentResult run(final int games, final long seed) {
+        return run(games, seed, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Plays the games on the given pool.
+     * @param games number of games
+     * @param seed seed of the tournament
+     * @param pool pool executing the games
+     * @return aggregated results
+     */
+    public TournamentResult run(final int games, final long seed, final ForkJoinPool pool) {
+        return pool.invoke(new Games(0, games, seed));
+    }
+
+    /**
+     * Plays a single game of the tournament.
+     * @param game index of the game
+     * @param tournamentSeed seed of the tournament
+     * @return result of the game
+     */
+    public GameResult play(final int game, final long tournamentSeed) {
+        long seed = mix(tournamentSeed + game * 0x9E3779B97F4A7C15L);
+        Random random = new Random(seed);
+        Game instance = gameFactory.get();
+
+        int count = strategies.size();
+        Player[] players = new Player[count];
+        HashMap<Player, Integer> indexes = new HashMap<>();
+        for (int i = 0; i < count; i++) {
+            players[i] = instance.registerPlayer(names.get(i));
+            indexes.put(players[i], i);
+        }
+        List<MemoryState> board = boardFactory.apply(random);
+        instance.startGame(board, rounds);
+
+        PlayerView[] views = new PlayerView[count];
+        for (int i = 0; i < count; i++) {
+            views[i] = new PlayerView(players[i], new Random(mix(seed + i + 1)), board.size(), rounds);
+        }
+
+        Response[] last = new Response[count];
+        ArrayList<Command> commands = new ArrayList<>(count);
+        for (int round = 0; round < rounds; round++) {
+            commands.clear();
+            for (int i = 0; i < count; i++) {
+                views[i].update(round, last[i]);
+                Command command = strategies.get(i).apply(views[i]);
+                if (command != null)
+                    commands.add(command);
+            }
+            List<Response> responses = instance.nextRound(commands.toArray(new Command[0]));
+            Arrays.fill(last, null);
+            for (Response response : responses) {
+                Integer index = indexes.get(response.getPlayer());
+                if (index != null)
+                    last[index] = response;
+            }
+        }
+
+        PlayerScore[] scores = new PlayerScore[count];
+        for (PlayerScore score : instance.getScores()) {
+            Integer index = indexes.get(score.getPlayer());
+            if (index != null)
+                scores[index] = score;
+        }
+        for (int i = 0; i < count; i++) {
+            if (scores[i] == null)
+                scores[i] = new PlayerScore(players[i]);
+        }
+        GameResult result = new GameResult(game, seed, Collections.unmodifiableList(Arrays.asList(scores)));
+        if (listener != null)
+            listener.accept(result);
+        return result;
+    }
+
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    private final class Games extends RecursiveTask<TournamentResult> {
+        private static final long serialVersionUID = 1L;
+
+        private final int from;
+        private final int to;
+        private final long seed;
+
+        private Games(final int from, final int to, final long seed) {
+            this.from = from;
+            this.to = to;
+            this.seed = seed;
+        }
+
+        @Override
+        protected TournamentResult compute() {
+            if (to - from <= GAMES_PER_TASK) {
+                TournamentResult result = new TournamentResult(names);
+                for (int game = from; game < to; game++) {
+                    result.add(play(game, seed));
+                }
+                return result;
+            }
+            int middle = (from + to) >>> 1;
+            Games left = new Games(from, middle, seed);
+            left.fork();
+            TournamentResult right = new Games(middle, to, seed).compute();
+            return left.join().merge(right);
+        }
+    }
+}
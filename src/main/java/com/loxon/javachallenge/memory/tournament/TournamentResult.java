@@ -0,0 +1,61 @@
+package com.loxon.javachallenge.memory.tournament;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Aggregated results of a tournament, one entry per strategy.
+ */
+public final class TournamentResult {
+
+    private final List<StrategyStats> strategies;
+
+    TournamentResult(final List<String> names) {
+        ArrayList<StrategyStats> stats = new ArrayList<>(names.size());
+        for (String name : names) {
+            stats.add(new StrategyStats(name));
+        }
+        this.strategies = stats;
+    }
+
+    /**
+     * Results of the strategies, in the order they were added to the tournament.
+     * @return list of results
+     */
+    public List<StrategyStats> getStrategies() {
+        return Collections.unmodifiableList(strategies);
+    }
+
+    void add(final GameResult result) {
+        int best = Integer.MIN_VALUE;
+        int bestCount = 0;
+        for (int i = 0; i < strategies.size(); i++) {
+            int score = result.getScores().get(i).getTotalScore();
+            if (score > best) {
+                best = score;
+                bestCount = 1;
+            } else if (score == best) {
+                bestCount++;
+            }
+        }
+        for (int i = 0; i < strategies.size(); i++) {
+            int score = result.getScores().get(i).getTotalScore();
+            strategies.get(i).add(result.getScores().get(i), bestCount == 1 && score == best);
+        }
+    }
+
+    TournamentResult merge(final TournamentResult other) {
+        for (int i = 0; i < strategies.size(); i++) {
+            strategies.get(i).merge(other.strategies.get(i));
+        }
+        return this;
+    }
+
+    @Override
+    public String toString() {
+        return "TournamentResult{" +
+                "strategies=" + strategies +
+                '}';
+    }
+}
@@ -0,0 +1,141 @@
+package com.loxon.javachallenge.memory;
+
+import com.loxon.javachallenge.memory.api.MemoryState;
+import com.loxon.javachallenge.memory.api.Player;
+import com.loxon.javachallenge.memory.api.communication.commands.CommandAllocate;
+import com.loxon.javachallenge.memory.api.communication.commands.CommandFortify;
+import com.loxon.javachallenge.memory.api.communication.commands.CommandFree;
+import com.loxon.javachallenge.memory.api.communication.commands.CommandRecover;
+import com.loxon.javachallenge.memory.api.communication.commands.CommandSwap;
+import com.loxon.javachallenge.memory.api.communication.general.Command;
+import com.loxon.javachallenge.memory.engine.CellChangeListener;
+import com.loxon.javachallenge.memory.engine.CellChanges;
+import com.loxon.javachallenge.memory.engine.PackedGame;
+import com.loxon.javachallenge.memory.engine.Snapshot;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+public class ChangeFeedTest {
+
+    private static final int CELLS = 64;
+
+    private PackedGame game;
+    private Player[] players;
+    private MemoryState[] mirrorStates;
+    private Player[] mirrorOwners;
+    private int changedRounds;
+    private final CellChangeListener listener = this::apply;
+
+    @Before
+    public void setUp() {
+        start(4);
+    }
+
+    private void start(final int playerCount) {
+        game = new PackedGame();
+        players = new Player[playerCount];
+        for (int i = 0; i < players.length; i++) {
+            players[i] = game.registerPlayer("p" + i);
+        }
+        mirrorStates = new MemoryState[CELLS];
+        Arrays.fill(mirrorStates, MemoryState.FREE);
+        mirrorStates[10] = MemoryState.SYSTEM;
+        mirrorOwners = new Player[CELLS];
+        game.startGame(Arrays.asList(mirrorStates.clone()), 100);
+        game.addChangeListener(listener);
+    }
+
+    private void apply(final CellChanges changes) {
+        changedRounds++;
+        for (int i = 0; i < changes.size(); i++) {
+            int cell = changes.cell(i);
+            Assert.assertEquals(mirrorStates[cell], changes.oldState(i));
+            Assert.assertEquals(mirrorOwners[cell], changes.oldOwner(i));
+            Assert.assertTrue(changes.oldState(i) != changes.newState(i) || changes.oldOwner(i) != changes.newOwner(i));
+            mirrorStates[cell] = changes.newState(i);
+            mirrorOwners[cell] = changes.newOwner(i);
+        }
+    }
+
+    private String mirror() {
+        StringBuilder builder = new StringBuilder("\n\n");
+        for (int i = 0; i < CELLS; i++) {
+            builder.append(i).append(": ").append(mirrorStates[i]).append("(")
+                .append(mirrorOwners[i] == null ? "null" : mirrorOwners[i].getName()).append("), ");
+            if (i % 8 == 7)
+                builder.append("\n");
+        }
+        return builder.append("\n").toString();
+    }
+
+    private void playRandomRounds(final Random random, final int rounds) {
+        for (int round = 0; round < rounds; round++) {
+            Command[] commands = new Command[players.length];
+            for (int i = 0; i < players.length; i++) {
+                int cell = random.nextInt(CELLS);
+                switch (random.nextInt(5)) {
+                    case 0:
+                        commands[i] = new CommandFree(players[i], cell);
+                        break;
+                    case 1:
+                        commands[i] = new CommandRecover(players[i], cell);
+                        break;
+                    case 2:
+                        commands[i] = new CommandFortify(players[i], cell);
+                        break;
+                    case 3:
+                        commands[i] = new CommandSwap(players[i], cell, random.nextInt(CELLS));
+                        break;
+                    default:
+                        commands[i] = new CommandAllocate(players[i], cell & ~3, (cell & ~3) + 1);
+                }
+            }
+            game.nextRound(commands);
+        }
+    }
+
+    @Test
+    public void testChangesReproduceTheBoard() {
+        playRandomRounds(new Random(1), 100);
+        Assert.assertEquals(100, changedRounds);
+        Assert.assertEquals(game.visualize(), mirror());
+    }
+
+    @Test
+    public void testChangesOfParallelRoundsFollowEachCell() {
+        start(1500);
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            game.setParallelism(pool);
+            playRandomRounds(new Random(4), 20);
+        } finally {
+            pool.shutdown();
+        }
+        Assert.assertEquals(game.visualize(), mirror());
+    }
+
+    @Test
+    public void testRollbackIsReported() {
+        Random random = new Random(2);
+        playRandomRounds(random, 10);
+        Snapshot snapshot = game.snapshot();
+        String expected = game.visualize();
+        playRandomRounds(random, 10);
+        game.addChangeListener(changes -> Assert.assertEquals(changes.isRollback(), changes.getRound() == 11));
+        game.restore(snapshot);
+        Assert.assertEquals(expected, mirror());
+    }
+
+    @Test
+    public void testRemovedListenerIsNotCalled() {
+        playRandomRounds(new Random(3), 1);
+        game.removeChangeListener(listener);
+        playRandomRounds(new Random(3), 1);
+        Assert.assertEquals(1, changedRounds);
+    }
+}
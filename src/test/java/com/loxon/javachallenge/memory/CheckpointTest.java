@@ -0,0 +1,63 @@
+package com.loxon.javachallenge.memory;
+
+import com.loxon.javachallenge.memory.api.Player;
+import com.loxon.javachallenge.memory.engine.CellState;
+import com.loxon.javachallenge.memory.engine.PackedGame;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+
+public class CheckpointTest {
+
+    private static final RandomRounds RANDOM_ROUNDS = new RandomRounds(1001, 20, (firstCell, states, count) -> {
+        for (int i = 0; i < count; i++) {
+            if (firstCell + i == 17)
+                states[i] = CellState.SYSTEM;
+        }
+    }, RandomRounds.Kind.RECOVER, RandomRounds.Kind.FORTIFY, RandomRounds.Kind.SWAP, RandomRounds.Kind.STATS,
+        RandomRounds.Kind.ALLOCATE_BLOCK);
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testRestoredGameContinuesLikeTheOriginal() throws IOException {
+        PackedGame game = new PackedGame();
+        Player named = game.registerPlayer("pé");
+        Player[] players = RANDOM_ROUNDS.start(game);
+        Random random = new Random(3);
+        for (int i = 0; i < 40; i++) {
+            game.nextRound(RANDOM_ROUNDS.round(random, players));
+        }
+
+        Path file = folder.newFile().toPath();
+        game.writeCheckpoint(file);
+        PackedGame restored = PackedGame.readCheckpoint(file);
+        restored.setVerifyScores(true);
+
+        RandomRounds.Comparison games = RANDOM_ROUNDS.compare(game, players, restored, players);
+        games.assertSameState();
+        Assert.assertEquals(named, restored.getScores().get(0).getPlayer());
+        for (int i = 0; i < players.length; i++) {
+            Assert.assertEquals(players[i], restored.getScores().get(i + 1).getPlayer());
+        }
+        for (int i = 0; i < 40; i++) {
+            // Restored players are equal to the checkpointed ones
+            games.playRound();
+        }
+        games.assertSameState();
+    }
+
+    @Test(expected = IOException.class)
+    public void testOtherFilesAreRejected() throws IOException {
+        Path file = folder.newFile().toPath();
+        Files.write(file, new byte[64]);
+        PackedGame.readCheckpoint(file);
+    }
+}
@@ -0,0 +1,292 @@
+package com.loxon.javachallenge.memory;
+
+import com.loxon.javachallenge.memory.api.MemoryState;
+import com.loxon.javachallenge.memory.api.Player;
+import com.loxon.javachallenge.memory.api.communication.commands.CommandAllocate;
+import com.loxon.javachallenge.memory.api.communication.commands.CommandFortify;
+import com.loxon.javachallenge.memory.api.communication.commands.CommandFree;
+import com.loxon.javachallenge.memory.api.communication.commands.CommandRecover;
+import com.loxon.javachallenge.memory.api.communication.commands.CommandScan;
+import com.loxon.javachallenge.memory.api.communication.commands.CommandScanRange;
+import com.loxon.javachallenge.memory.api.communication.commands.CommandStats;
+import com.loxon.javachallenge.memory.api.communication.commands.CommandSwap;
+import com.loxon.javachallenge.memory.api.communication.commands.ResponseScan;
+import com.loxon.javachallenge.memory.api.communication.commands.ResponseScanRange;
+import com.loxon.javachallenge.memory.api.communication.commands.ResponseStats;
+import com.loxon.javachallenge.memory.api.communication.commands.ResponseSuccessList;
+import com.loxon.javachallenge.memory.api.communication.general.Command;
+import com.loxon.javachallenge.memory.api.communication.general.CommandGeneral;
+import com.loxon.javachallenge.memory.api.communication.general.Response;
+import com.loxon.javachallenge.memory.codec.CommandView;
+import com.loxon.javachallenge.memory.codec.MalformedMessageException;
+import com.loxon.javachallenge.memory.codec.MessageCodec;
+import com.loxon.javachallenge.memory.codec.ResponseView;
+import com.sun.management.ThreadMXBean;
+import org.junit.Assert;
+import org.junit.Assume;
+import org.junit.Test;
+
+import java.lang.management.ManagementFactory;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+public class CodecTest {
+
+    private static final int ITERATIONS = 20000;
+    private static final MemoryState[] STATES = MemoryState.values();
+
+    private final Player player = new Player("p");
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(1 << 16);
+
+    private static int cell(final Random random) {
+        switch (random.nextInt(6)) {
+            case 0:
+                return CommandGeneral.NO_CELL;
+            case 1:
+                return random.nextInt();
+            case 2:
+                return random.nextBoolean() ? Integer.MAX_VALUE : Integer.MIN_VALUE + 1;
+            case 3:
+                return -random.nextInt(10);
+            default:
+                return random.nextInt(1 << 20);
+        }
+    }
+
+    private static int[] cells(final Random random) {
+        int[] cells = new int[random.nextInt(6)];
+        for (int i = 0; i < cells.length; i++) {
+            cells[i] = cell(random);
+        }
+        return cells;
+    }
+
+    private Command command(final Random random) {
+        switch (random.nextInt(8)) {
+            case 0:
+                return new CommandAllocate(player, cells(random));
+            case 1:
+                return new CommandFree(player, cells(random));
+            case 2:
+                return new CommandRecover(player, cells(random));
+            case 3:
+                return new CommandFortify(player, cells(random));
+            case 4:
+                return new CommandSwap(player, cells(random));
+            case 5:
+                int scanned = cell(random);
+                return new CommandScan(player, scanned == CommandGeneral.NO_CELL ? null : scanned);
+            case 6:
+                return new CommandScanRange(player, cell(random), random.nextInt() >> random.nextInt(32));
+            default:
+                return new CommandStats(player);
+        }
+    }
+
+    private Response response(final Random random) {
+        switch (random.nextInt(5)) {
+            case 0: {
+                List<Integer> cells = new ArrayList<>();
+                for (int cell : cells(random)) {
+                    cells.add(cell == CommandGeneral.NO_CELL ? null : cell);
+                }
+                return new ResponseSuccessList(player, cells);
+            }
+            case 1: {
+                List<MemoryState> states = new ArrayList<>();
+                for (int i = random.nextInt(9); i > 0; i--) {
+                    states.add(random.nextInt(8) == 0 ? null : STATES[random.nextInt(STATES.length)]);
+                }
+                return new ResponseScan(player, cell(random), states);
+            }
+            case 2: {
+                byte[] states = new byte[random.nextInt(300)];
+                for (int i = 0; i < states.length; i++) {
+                    states[i] = (byte) random.nextInt(STATES.length);
+                }
+                return new ResponseScanRange(player, cell(random), states, states.length);
+            }
+            case 3: {
+                ResponseStats stats = new ResponseStats(player);
+                stats.setCellCount(random.nextInt());
+                stats.setOwnedCells(random.nextInt(1000));
+                stats.setFreeCells(random.nextInt(1000));
+                stats.setAllocatedCells(random.nextInt(1000));
+                stats.setCorruptCells(random.nextInt(1000));
+                stats.setFortifiedCells(random.nextInt(1000));
+                stats.setSystemCells(random.nextInt(1000));
+                stats.setRemainingRounds(random.nextInt(3) - 1);
+                return stats;
+            }
+            default:
+                return null;
+        }
+    }
+
+    private static void assertSameCommand(final Command expected, final Command actual) {
+        Assert.assertEquals(expected.getClass(), actual.getClass());
+        if (expected instanceof CommandGeneral) {
+            Assert.assertArrayEquals(((CommandGeneral) expected).getCellArray(),
+                ((CommandGeneral) actual).getCellArray());
+        } else if (expected instanceof CommandScan) {
+            Assert.assertEquals(((CommandScan) expected).getCell(), ((CommandScan) actual).getCell());
+            if (expected instanceof CommandScanRange) {
+                Assert.assertEquals(((CommandScanRange) expected).getCellCount(),
+                    ((CommandScanRange) actual).getCellCount());
+            }
+        }
+    }
+
+    @Test
+    public void testCommandsRoundTrip() throws Exception {
+        Random random = new Random(1);
+        CommandView view = new CommandView();
+        for (int i = 0; i < ITERATIONS; i++) {
+            Command command = command(random);
+            buffer.clear();
+            buffer.put((byte) 0x55);
+            MessageCodec.encode(buffer, command);
+            int end = buffer.position();
+            buffer.flip();
+
+            view.wrap(buffer, 1);
+            Assert.assertEquals(end - 1, view.getEncodedLength());
+            assertSameCommand(command, view.toCommand(player));
+
+            buffer.position(1);
+            Command decoded = MessageCodec.decodeCommand(buffer, player);
+            Assert.assertEquals(end, buffer.position());
+            Assert.assertSame(player, decoded.getPlayer());
+            assertSameCommand(command, decoded);
+        }
+    }
+
+    @Test
+    public void testResponsesRoundTrip() throws Exception {
+        Random random = new Random(2);
+        ResponseView view = new ResponseView();
+        for (int i = 0; i < ITERATIONS; i++) {
+            Response response = response(random);
+            buffer.clear();
+            MessageCodec.encode(buffer, response);
+            int end = buffer.position();
+            buffer.flip();
+
+            Assert.assertEquals(response, view.wrap(buffer, 0).toResponse(player));
+            Assert.assertEquals(end, view.getEncodedLength());
+            Response decoded = MessageCodec.decodeResponse(buffer, player);
+            Assert.assertEquals(end, buffer.position());
+            Assert.assertEquals(response, decoded);
+        }
+    }
+
+    @Test
+    public void testEncodingCommandsDoesNotAllocate() {
+        Assume.assumeTrue("Allocation measurement is not supported.",
+            ManagementFactory.getThreadMXBean() instanceof ThreadMXBean);
+        ThreadMXBean threads = (ThreadMXBean) ManagementFactory.getThreadMXBean();
+        Assume.assumeTrue(threads.isThreadAllocatedMemorySupported());
+        threads.setThreadAllocatedMemoryEnabled(true);
+
+        Random random = new Random(4);
+        Command[] commands = new Command[64];
+        for (int i = 0; i < commands.length; i++) {
+            commands[i] = command(random);
+        }
+        for (int i = 0; i < ITERATIONS; i++) {
+            buffer.clear();
+            MessageCodec.encode(buffer, commands[i % commands.length]);
+        }
+
+        long thread = Thread.currentThread().getId();
+        long before = threads.getThreadAllocatedBytes(thread);
+        for (int i = 0; i < ITERATIONS; i++) {
+            buffer.clear();
+            MessageCodec.encode(buffer, commands[i % commands.length]);
+        }
+        long allocated = threads.getThreadAllocatedBytes(thread) - before;
+
+        Assert.assertTrue("Allocated " + allocated + " bytes in " + ITERATIONS + " messages.", allocated < ITERATIONS / 10);
+    }
+
+    @Test
+    public void testViewsReadFieldsInPlace() throws Exception {
+        buffer.clear();
+        MessageCodec.encode(buffer, new CommandFree(player, 5, CommandGeneral.NO_CELL, -3));
+        MessageCodec.encode(buffer, new ResponseScan(player, 8,
+            Arrays.asList(MemoryState.FREE, null, MemoryState.SYSTEM)));
+        buffer.flip();
+
+        CommandView command = new CommandView().wrap(buffer, 0);
+        Assert.assertEquals(MessageCodec.FREE, command.getType());
+        Assert.assertEquals(3, command.getCellCount());
+        Assert.assertEquals(5, command.nextCell());
+        Assert.assertEquals(CommandGeneral.NO_CELL, command.nextCell());
+        Assert.assertEquals(-3, command.nextCell());
+        Assert.assertFalse(command.hasNextCell());
+        command.rewind();
+        Assert.assertEquals(5, command.nextCell());
+
+        ResponseView response = new ResponseView().wrap(buffer, command.getEncodedLength());
+        Assert.assertEquals(MessageCodec.SCAN_RESULT, response.getType());
+        Assert.assertEquals(8, response.getFirstCell());
+        Assert.assertEquals(3, response.getStateCount());
+        Assert.assertEquals(MemoryState.SYSTEM, response.getState(2));
+        Assert.assertNull(response.getState(1));
+        Assert.assertEquals(-1, response.getStateOrdinal(1));
+        Assert.assertEquals(0, buffer.position());
+    }
+
+    @Test
+    public void testStatesArePackedTwoPerByte() {
+        buffer.clear();
+        MessageCodec.encode(buffer, new ResponseScanRange(player, 0, new byte[256], 256));
+        Assert.assertEquals(1 + 1 + 2 + 128, buffer.position());
+    }
+
+    @Test
+    public void testTruncatedMessagesAreRejected() {
+        Random random = new Random(3);
+        for (int i = 0; i < ITERATIONS / 10; i++) {
+            boolean isCommand = random.nextBoolean();
+            buffer.clear();
+            if (isCommand)
+                MessageCodec.encode(buffer, command(random));
+            else
+                MessageCodec.encode(buffer, response(random));
+            int length = buffer.position();
+            if (length < 2)
+                continue;
+            // Messages are self-delimiting, so no proper prefix of a message is a valid message
+            ByteBuffer truncated = buffer.duplicate();
+            truncated.flip();
+            truncated.limit(random.nextInt(length - 1) + 1);
+            try {
+                if (isCommand)
+                    new CommandView().wrap(truncated, 0);
+                else
+                    new ResponseView().wrap(truncated, 0);
+                Assert.fail();
+            } catch (MalformedMessageException e) {
+                Assert.assertEquals("Truncated message", e.getMessage());
+            }
+        }
+        ByteBuffer unknown = ByteBuffer.wrap(new byte[] {42});
+        try {
+            MessageCodec.decodeCommand(unknown, player);
+            Assert.fail();
+        } catch (MalformedMessageException e) {
+            Assert.assertEquals("Unknown command type: 42", e.getMessage());
+        }
+        ByteBuffer cut = ByteBuffer.wrap(new byte[] {MessageCodec.ALLOCATE, 3, 2});
+        try {
+            MessageCodec.decodeCommand(cut, player);
+            Assert.fail();
+        } catch (MalformedMessageException e) {
+            Assert.assertEquals("Truncated message", e.getMessage());
+        }
+    }
+}
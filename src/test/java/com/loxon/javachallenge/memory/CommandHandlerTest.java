@@ -0,0 +1,114 @@
+package com.loxon.javachallenge.memory;
+
+import com.loxon.javachallenge.memory.api.MemoryState;
+import com.loxon.javachallenge.memory.api.Player;
+import com.loxon.javachallenge.memory.api.PlayerScore;
+import com.loxon.javachallenge.memory.api.communication.commands.CommandAllocate;
+import com.loxon.javachallenge.memory.api.communication.commands.CommandStats;
+import com.loxon.javachallenge.memory.api.communication.commands.ResponseStats;
+import com.loxon.javachallenge.memory.api.communication.commands.ResponseSuccessList;
+import com.loxon.javachallenge.memory.api.communication.general.CommandGeneral;
+import com.loxon.javachallenge.memory.api.communication.general.Response;
+import com.loxon.javachallenge.memory.engine.CellState;
+import com.loxon.javachallenge.memory.engine.PackedGame;
+import com.loxon.javachallenge.memory.engine.Snapshot;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+public class CommandHandlerTest {
+
+    /**
+     * Fortifies free cells for the sender in one step.
+     */
+    private static final class CommandClaim extends CommandGeneral {
+        CommandClaim(final Player player, final int... cells) {
+            super(player, cells);
+        }
+    }
+
+    private PackedGame game;
+    private Player[] players;
+
+    @Before
+    public void setUp() {
+        game = new PackedGame();
+        game.setVerifyScores(true);
+        game.setHashing(true);
+        game.setFreeSpaceIndexing(true);
+        game.registerCommand(CommandClaim.class, (command, context) -> {
+            int[] claimed = new int[command.getCellArray().length];
+            int count = 0;
+            for (int cell : command.getCellArray()) {
+                if (cell < 0 || cell >= context.getCellCount() || context.isConflicting(cell))
+                    continue;
+                if (context.getState(cell) == CellState.FREE) {
+                    context.setCell(cell, CellState.FORTIFIED, context.getHandle());
+                    claimed[count++] = cell;
+                }
+            }
+            return new ResponseSuccessList(context.getPlayer(), claimed, count);
+        });
+        players = new Player[]{game.registerPlayer("a"), game.registerPlayer("b")};
+        MemoryState[] board = new MemoryState[12];
+        Arrays.fill(board, MemoryState.FREE);
+        board[9] = MemoryState.SYSTEM;
+        game.startGame(Arrays.asList(board), 10);
+    }
+
+    @Test
+    public void testRegisteredCommandChangesTheBoard() {
+        long emptyHash = game.getHash();
+        Snapshot snapshot = game.snapshot();
+
+        List<Response> responses = game.nextRound(new CommandClaim(players[0], 0, 1, 2, 3, 9),
+            new CommandAllocate(players[1], 4, 5));
+        Assert.assertEquals(Arrays.asList(0, 1, 2, 3), ((ResponseSuccessList) responses.get(0)).getSuccessCells());
+
+        PlayerScore score = game.getScores().get(0);
+        Assert.assertEquals(4, score.getOwnedCells());
+        Assert.assertEquals(1, score.getOwnedBlocks());
+        Assert.assertEquals(4, score.getFortifiedCells());
+        ResponseStats stats = (ResponseStats) game.nextRound(new CommandStats(players[0])).get(0);
+        Assert.assertEquals(4, stats.getOwnedCells());
+        Assert.assertEquals(4, stats.getFortifiedCells());
+        Assert.assertEquals(5, stats.getFreeCells());
+        Assert.assertEquals(6, game.nextFreeCell(0));
+        Assert.assertEquals(5, game.countFree(0, 12));
+        Assert.assertNotEquals(emptyHash, game.getHash());
+
+        game.restore(snapshot);
+        Assert.assertEquals(0, game.getScores().get(0).getOwnedCells());
+        Assert.assertEquals(0, game.nextFreeCell(0));
+        Assert.assertEquals(emptyHash, game.getHash());
+    }
+
+    @Test
+    public void testConflictsAreVisibleToRegisteredCommands() {
+        List<Response> responses = game.nextRound(new CommandClaim(players[0], 4, 5),
+            new CommandAllocate(players[1], 5, 6));
+        Assert.assertEquals(Arrays.asList(4), ((ResponseSuccessList) responses.get(0)).getSuccessCells());
+        Assert.assertEquals(1, game.getScores().get(0).getFortifiedCells());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidOwnersAreRejected() {
+        game.registerCommand(CommandClaim.class, (command, context) -> {
+            context.setCell(0, CellState.ALLOCATED, 3);
+            return null;
+        });
+        game.nextRound(new CommandClaim(players[0], 0));
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void testCellsOutsideOfTheBoardAreRejected() {
+        game.registerCommand(CommandClaim.class, (command, context) -> {
+            context.getState(12);
+            return null;
+        });
+        game.nextRound(new CommandClaim(players[0], 0));
+    }
+}
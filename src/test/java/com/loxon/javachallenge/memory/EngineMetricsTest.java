@@ -0,0 +1,85 @@
+package com.loxon.javachallenge.memory;
+
+import com.loxon.javachallenge.memory.api.MemoryState;
+import com.loxon.javachallenge.memory.api.Player;
+import com.loxon.javachallenge.memory.api.communication.commands.CommandAllocate;
+import com.loxon.javachallenge.memory.api.communication.commands.CommandFree;
+import com.loxon.javachallenge.memory.api.communication.commands.CommandScan;
+import com.loxon.javachallenge.memory.api.communication.commands.CommandStats;
+import com.loxon.javachallenge.memory.api.communication.commands.CommandSwap;
+import com.loxon.javachallenge.memory.engine.CommandKind;
+import com.loxon.javachallenge.memory.engine.EngineMetrics;
+import com.loxon.javachallenge.memory.engine.LatencyHistogram;
+import com.loxon.javachallenge.memory.engine.PackedGame;
+import com.loxon.javachallenge.memory.engine.Rejection;
+import org.junit.Assert;
+import org.junit.Test;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+
+public class EngineMetricsTest {
+
+    @Test
+    public void testCountsCommandsAndRejections() throws JMException {
+        PackedGame game = new PackedGame();
+        EngineMetrics metrics = new EngineMetrics();
+        game.setMetrics(metrics);
+        Player a = game.registerPlayer("a");
+        Player b = game.registerPlayer("b");
+        Player c = game.registerPlayer("c");
+        Player d = game.registerPlayer("d");
+        MemoryState[] board = new MemoryState[16];
+        Arrays.fill(board, MemoryState.FREE);
+        game.startGame(Arrays.asList(board), 10);
+
+        game.nextRound(
+            new CommandAllocate(a, 0, 1),
+            new CommandSwap(b, 1, 8),
+            new CommandAllocate(c, 3, 4),
+            new CommandFree(d, 20, 21),
+            new CommandScan(a, 0),
+            new CommandScan(new Player("stranger"), 0));
+        game.nextRound(new CommandFree(a, 1, 2, 3), new CommandStats(b));
+
+        Assert.assertEquals(2, metrics.getRounds());
+        Assert.assertEquals(2, metrics.getCommandCount(CommandKind.ALLOCATE));
+        Assert.assertEquals(2, metrics.getCommandCount(CommandKind.FREE));
+        Assert.assertEquals(1, metrics.getCommandCount(CommandKind.SWAP));
+        Assert.assertEquals(1, metrics.getCommandCount(CommandKind.STATS));
+        Assert.assertEquals(0, metrics.getCommandCount(CommandKind.SCAN));
+        Assert.assertEquals(1, metrics.getRejected(Rejection.UNREGISTERED_PLAYER));
+        Assert.assertEquals(1, metrics.getRejected(Rejection.DUPLICATE_PLAYER));
+        Assert.assertEquals(2, metrics.getRejected(Rejection.INVALID_CELL));
+        Assert.assertEquals(1, metrics.getRejected(Rejection.CROSS_BLOCK));
+        Assert.assertEquals(1, metrics.getRejected(Rejection.CELL_COUNT));
+        Assert.assertEquals(3, metrics.getCorruptedCells());
+        Assert.assertEquals(2, metrics.getRoundLatency().getCount());
+
+        metrics.register("metrics-test");
+        try {
+            ObjectName name = new ObjectName("com.loxon.javachallenge.memory:type=EngineMetrics,name=\"metrics-test\"");
+            Assert.assertEquals(2L, ManagementFactory.getPlatformMBeanServer().getAttribute(name, "Rounds"));
+        } finally {
+            metrics.unregister();
+        }
+    }
+
+    @Test
+    public void testHistogramPercentiles() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int i = 1; i <= 1000; i++) {
+            histogram.record(i * 1000L);
+        }
+        Assert.assertEquals(1000, histogram.getCount());
+        Assert.assertEquals(1_000_000, histogram.getMax());
+        Assert.assertEquals(500_500, histogram.getMean(), 0.001);
+        long p50 = histogram.getValueAtPercentile(50);
+        long p99 = histogram.getValueAtPercentile(99);
+        Assert.assertTrue("p50 " + p50, p50 >= 500_000 && p50 <= 500_000 * 1.04);
+        Assert.assertTrue("p99 " + p99, p99 >= 990_000 && p99 <= 1_000_000);
+        Assert.assertEquals(1_000_000, histogram.getValueAtPercentile(100));
+    }
+}
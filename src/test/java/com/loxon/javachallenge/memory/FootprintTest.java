@@ -0,0 +1,72 @@
+package com.loxon.javachallenge.memory;
+
+import com.loxon.javachallenge.memory.api.Game;
+import com.loxon.javachallenge.memory.api.MemoryState;
+import com.loxon.javachallenge.memory.engine.PackedGame;
+import com.sun.management.ThreadMXBean;
+import org.junit.Assert;
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+
+public class FootprintTest {
+
+    private static final int CELLS = 1 << 22;
+
+    private ThreadMXBean threads;
+
+    @Before
+    public void setUp() {
+        Assume.assumeTrue("Allocation measurement is not supported.",
+            ManagementFactory.getThreadMXBean() instanceof ThreadMXBean);
+        threads = (ThreadMXBean) ManagementFactory.getThreadMXBean();
+        Assume.assumeTrue(threads.isThreadAllocatedMemorySupported());
+        threads.setThreadAllocatedMemoryEnabled(true);
+    }
+
+    private long allocatedBytes() {
+        return threads.getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+
+    /**
+     * Heap bytes allocated per cell by starting a game, including the board handed to the reference implementation.
+     */
+    private double bytesPerCell(final boolean packed, final boolean offHeap) {
+        long before = allocatedBytes();
+        if (packed) {
+            PackedGame game = new PackedGame();
+            game.setOffHeap(offHeap);
+            game.startGame(CELLS, (firstCell, states, count) -> { }, 1);
+        } else {
+            ArrayList<MemoryState> memory = new ArrayList<>(CELLS);
+            for (int i = 0; i < CELLS; i++) {
+                memory.add(MemoryState.FREE);
+            }
+            Game game = GameImplementationFactory.get();
+            game.startGame(memory, 1);
+        }
+        return (double) (allocatedBytes() - before) / CELLS;
+    }
+
+    @Test
+    public void testHeapFootprintPerCell() {
+        // Loads the classes, their allocations are not per cell
+        bytesPerCell(false, false);
+        bytesPerCell(true, false);
+        bytesPerCell(true, true);
+
+        double reference = bytesPerCell(false, false);
+        double packed = bytesPerCell(true, false);
+        double offHeap = bytesPerCell(true, true);
+
+        // Two references per cell, 4 bytes each with compressed oops
+        Assert.assertTrue("Reference: " + reference + " bytes per cell.", reference >= 8);
+        // A state byte, an owner int and two conflict bits
+        Assert.assertTrue("Packed: " + packed + " bytes per cell.", packed >= 5 && packed < 5.5);
+        // Only the buffer objects and the initializer chunk
+        Assert.assertTrue("Off-heap: " + offHeap + " bytes per cell.", offHeap < 0.1);
+    }
+}
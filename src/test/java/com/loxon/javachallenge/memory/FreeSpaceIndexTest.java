@@ -0,0 +1,97 @@
+package com.loxon.javachallenge.memory;
+
+import com.loxon.javachallenge.memory.api.MemoryState;
+import com.loxon.javachallenge.memory.api.Player;
+import com.loxon.javachallenge.memory.api.communication.commands.CommandAllocate;
+import com.loxon.javachallenge.memory.api.communication.commands.CommandSwap;
+import com.loxon.javachallenge.memory.engine.CellState;
+import com.loxon.javachallenge.memory.engine.PackedGame;
+import com.loxon.javachallenge.memory.engine.Snapshot;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+public class FreeSpaceIndexTest {
+
+    private static final int CELLS = 9003;
+    private static final int PLAYERS = 300;
+
+    private static final RandomRounds RANDOM_ROUNDS = new RandomRounds(CELLS, PLAYERS, (firstCell, states, count) -> {
+        Random random = new Random(firstCell);
+        for (int i = 0; i < count; i++) {
+            if (random.nextInt(10) < 7)
+                states[i] = random.nextBoolean() ? CellState.SYSTEM : CellState.CORRUPT;
+        }
+    }, RandomRounds.Kind.FREE, RandomRounds.Kind.RECOVER, RandomRounds.Kind.SWAP, RandomRounds.Kind.ALLOCATE_BLOCK);
+
+    private static void assertSameQueries(final PackedGame expected, final PackedGame actual, final Random random) {
+        Assert.assertEquals(expected.countFree(0, CELLS), actual.countFree(0, CELLS));
+        Assert.assertEquals(expected.nextFreeBlock(0), actual.nextFreeBlock(0));
+        Assert.assertEquals(expected.nextFreeCell(CELLS - 1), actual.nextFreeCell(CELLS - 1));
+        for (int i = 0; i < 50; i++) {
+            int from = random.nextInt(CELLS + 1);
+            int to = from + random.nextInt(CELLS + 1 - from);
+            Assert.assertEquals(expected.countFree(from, to), actual.countFree(from, to));
+            Assert.assertEquals(expected.nextFreeCell(from), actual.nextFreeCell(from));
+            int block = random.nextInt(CELLS / 4 + 2);
+            Assert.assertEquals(expected.nextFreeBlock(block), actual.nextFreeBlock(block));
+        }
+    }
+
+    @Test
+    public void testIndexMatchesScans() {
+        RandomRounds.Comparison games = RANDOM_ROUNDS.compare(game -> { }, game -> {
+            game.setFreeSpaceIndexing(true);
+            game.setParallelism(ForkJoinPool.commonPool());
+        });
+        Random queries = new Random(12);
+        assertSameQueries(games.expected, games.actual, queries);
+        for (int i = 0; i < 60; i++) {
+            games.playRound();
+            assertSameQueries(games.expected, games.actual, queries);
+        }
+
+        // An index enabled during the game starts from the current board
+        games.expected.setFreeSpaceIndexing(true);
+        assertSameQueries(games.actual, games.expected, queries);
+    }
+
+    @Test
+    public void testIndexFollowsBlocksAndRollbacks() {
+        Player[] players = new Player[1];
+        PackedGame game = new PackedGame();
+        game.setFreeSpaceIndexing(true);
+        players[0] = game.registerPlayer("p");
+        MemoryState[] board = new MemoryState[14];
+        Arrays.fill(board, MemoryState.FREE);
+        board[1] = MemoryState.SYSTEM;
+        game.startGame(Arrays.asList(board), 10);
+        Snapshot snapshot = game.snapshot();
+
+        Assert.assertEquals(1, game.nextFreeBlock(0));
+        Assert.assertEquals(2, game.nextFreeBlock(2));
+        // Cells 12 and 13 are free, but their block is cut by the end of the board
+        Assert.assertEquals(-1, game.nextFreeBlock(3));
+        Assert.assertEquals(13, game.countFree(0, 14));
+        Assert.assertEquals(12, game.nextFreeCell(12));
+        Assert.assertEquals(-1, game.nextFreeCell(14));
+
+        game.nextRound(new CommandAllocate(players[0], 4, 5));
+        Assert.assertEquals(2, game.nextFreeBlock(0));
+        Assert.assertEquals(11, game.countFree(0, 14));
+        Assert.assertEquals(2, game.countFree(4, 8));
+        Assert.assertEquals(6, game.nextFreeCell(4));
+
+        game.nextRound(new CommandSwap(players[0], 4, 8));
+        Assert.assertEquals(-1, game.nextFreeBlock(0));
+        Assert.assertEquals(3, game.countFree(4, 8));
+        Assert.assertEquals(3, game.countFree(8, 12));
+
+        game.restore(snapshot);
+        Assert.assertEquals(1, game.nextFreeBlock(0));
+        Assert.assertEquals(13, game.countFree(0, 14));
+    }
+}
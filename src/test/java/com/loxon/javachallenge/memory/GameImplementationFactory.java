@@ -83,11 +83,12 @@ public class GameImplementationFactory {
                 
                 // Újrarendezés, hogy a scan commandok a végén legyenek
                 ArrayList<Command> commands = new ArrayList<>();
+                int modifications = 0;
                 for (Command command : requests) {
                     if (command instanceof CommandScan) {
                         commands.add(command);
                     } else {
-                        commands.add(0, command);
+                        commands.add(modifications++, command);
                     }
                 }
                 
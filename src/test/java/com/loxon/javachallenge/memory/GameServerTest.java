@@ -0,0 +1,173 @@
+package com.loxon.javachallenge.memory;
+
+import com.loxon.javachallenge.memory.api.MemoryState;
+import com.loxon.javachallenge.memory.api.Player;
+import com.loxon.javachallenge.memory.api.communication.commands.CommandAllocate;
+import com.loxon.javachallenge.memory.api.communication.commands.CommandScan;
+import com.loxon.javachallenge.memory.api.communication.commands.CommandScanRange;
+import com.loxon.javachallenge.memory.api.communication.commands.CommandStats;
+import com.loxon.javachallenge.memory.api.communication.commands.ResponseScan;
+import com.loxon.javachallenge.memory.api.communication.commands.ResponseScanRange;
+import com.loxon.javachallenge.memory.api.communication.commands.ResponseStats;
+import com.loxon.javachallenge.memory.api.communication.commands.ResponseSuccessList;
+import com.loxon.javachallenge.memory.api.communication.general.Command;
+import com.loxon.javachallenge.memory.api.communication.general.Response;
+import com.loxon.javachallenge.memory.engine.PackedGame;
+import com.loxon.javachallenge.memory.server.GameClient;
+import com.loxon.javachallenge.memory.server.GameServer;
+import com.loxon.javachallenge.memory.server.RoundCollector;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+public class GameServerTest {
+
+    private static final int PLAYERS = 200;
+
+    private RoundCollector collector;
+    private GameServer server;
+    private final List<GameClient> clients = new ArrayList<>();
+
+    private Player[] start(final int players) throws IOException {
+        PackedGame game = new PackedGame();
+        collector = new RoundCollector(game, 10, TimeUnit.MINUTES);
+        Player[] registered = new Player[players];
+        for (int i = 0; i < players; i++) {
+            registered[i] = collector.registerPlayer("p" + i);
+        }
+        MemoryState[] board = new MemoryState[players * 4];
+        Arrays.fill(board, MemoryState.FREE);
+        board[1] = MemoryState.SYSTEM;
+        game.startGame(Arrays.asList(board), 10);
+        collector.start();
+        server = new GameServer(collector, new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 2);
+        return registered;
+    }
+
+    private GameClient connect(final UUID id, final byte[] token) throws IOException {
+        GameClient client = new GameClient(server.getAddress(), id, token);
+        clients.add(client);
+        return client;
+    }
+
+    private GameClient connect(final Player player) throws IOException {
+        return connect(player.getId(), server.getLoginToken(player));
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        for (GameClient client : clients) {
+            client.close();
+        }
+        if (server != null)
+            server.close();
+        if (collector != null)
+            collector.close();
+    }
+
+    /**
+     * Every client executes a command, the round is played when all of them arrived.
+     */
+    private List<Response> round(final ExecutorService executor, final Function<Integer, Command> commands)
+            throws Exception {
+        List<Future<Response>> futures = new ArrayList<>();
+        for (int i = 0; i < clients.size(); i++) {
+            GameClient client = clients.get(i);
+            Command command = commands.apply(i);
+            futures.add(executor.submit(() -> client.execute(command)));
+        }
+        List<Response> responses = new ArrayList<>();
+        for (Future<Response> future : futures) {
+            responses.add(future.get(30, TimeUnit.SECONDS));
+        }
+        return responses;
+    }
+
+    @Test
+    public void testRoundsArePlayedOverLoopback() throws Exception {
+        Player[] players = start(PLAYERS);
+        for (Player player : players) {
+            connect(player);
+        }
+        Assert.assertEquals(players[7], clients.get(7).getPlayer());
+
+        ExecutorService executor = Executors.newFixedThreadPool(PLAYERS);
+        try {
+            List<Response> allocations = round(executor,
+                i -> new CommandAllocate(players[i], i * 4 + 2, i * 4 + 3));
+            for (int i = 0; i < PLAYERS; i++) {
+                Assert.assertEquals(players[i], allocations.get(i).getPlayer());
+                Assert.assertEquals(Arrays.asList(i * 4 + 2, i * 4 + 3),
+                    ((ResponseSuccessList) allocations.get(i)).getSuccessCells());
+            }
+
+            List<Response> scans = round(executor, i -> i % 3 == 0
+                ? new CommandScan(players[i], 0)
+                : i % 3 == 1 ? new CommandScanRange(players[i], i * 4 - 4, 8) : new CommandStats(players[i]));
+            Assert.assertEquals(Arrays.asList(MemoryState.FREE, MemoryState.SYSTEM,
+                MemoryState.OWNED_ALLOCATED, MemoryState.OWNED_ALLOCATED),
+                ((ResponseScan) scans.get(0)).getStates());
+            ResponseScanRange range = (ResponseScanRange) scans.get(4);
+            Assert.assertEquals(8, range.getCellCount());
+            Assert.assertEquals(MemoryState.ALLOCATED, range.getState(2));
+            Assert.assertEquals(MemoryState.OWNED_ALLOCATED, range.getState(6));
+            ResponseStats stats = (ResponseStats) scans.get(2);
+            Assert.assertEquals(PLAYERS * 4, stats.getCellCount());
+            Assert.assertEquals(1, stats.getSystemCells());
+            Assert.assertEquals(2, stats.getOwnedCells());
+        } finally {
+            executor.shutdownNow();
+        }
+        Assert.assertEquals(2, collector.getRounds());
+        Assert.assertEquals(PLAYERS, server.getConnectionCount());
+    }
+
+    private void assertLoginRejected(final UUID id, final byte[] token) throws IOException {
+        try {
+            connect(id, token);
+            Assert.fail();
+        } catch (IllegalArgumentException e) {
+            Assert.assertEquals("Invalid player or login token.", e.getMessage());
+        }
+    }
+
+    @Test
+    public void testLoginNeedsTheTokenOfThePlayer() throws Exception {
+        Player[] players = start(2);
+        byte[] token = server.getLoginToken(players[0]);
+        assertLoginRejected(UUID.randomUUID(), token);
+        // The id alone is public, a guessed or another player's token is not accepted
+        assertLoginRejected(players[0].getId(), server.getLoginToken(players[1]));
+        token[5]++;
+        assertLoginRejected(players[0].getId(), token);
+        Assert.assertEquals(players[0], connect(players[0]).getPlayer());
+    }
+
+    @Test
+    public void testSecondCommandOfTheRoundIsRejected() throws Exception {
+        Player[] players = start(2);
+        GameClient client = connect(players[0]);
+        CompletableFuture<Response> pending = collector.submit(new CommandStats(players[0]));
+        try {
+            client.execute(new CommandStats(players[0]));
+            Assert.fail();
+        } catch (IllegalStateException e) {
+            Assert.assertEquals("Player already submitted a command in this round.", e.getMessage());
+        }
+        Assert.assertFalse(pending.isDone());
+    }
+}
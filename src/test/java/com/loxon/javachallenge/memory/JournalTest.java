@@ -0,0 +1,163 @@
+package com.loxon.javachallenge.memory;
+
+import com.loxon.javachallenge.memory.api.Game;
+import com.loxon.javachallenge.memory.api.MemoryState;
+import com.loxon.javachallenge.memory.api.Player;
+import com.loxon.javachallenge.memory.api.communication.commands.CommandAllocate;
+import com.loxon.javachallenge.memory.api.communication.commands.CommandFortify;
+import com.loxon.javachallenge.memory.api.communication.commands.CommandFree;
+import com.loxon.javachallenge.memory.api.communication.commands.CommandRecover;
+import com.loxon.javachallenge.memory.api.communication.commands.CommandScan;
+import com.loxon.javachallenge.memory.api.communication.commands.CommandScanRange;
+import com.loxon.javachallenge.memory.api.communication.commands.CommandStats;
+import com.loxon.javachallenge.memory.api.communication.commands.CommandSwap;
+import com.loxon.javachallenge.memory.api.communication.general.Command;
+import com.loxon.javachallenge.memory.api.communication.general.Response;
+import com.loxon.javachallenge.memory.engine.PackedGame;
+import com.loxon.javachallenge.memory.journal.JournalReplayer;
+import com.loxon.javachallenge.memory.journal.JournalingGame;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+public class JournalTest {
+
+    private static final int ROUNDS = 200;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private static Command command(final Random random, final Player player) {
+        int cell = random.nextInt(140) - 6;
+        switch (random.nextInt(9)) {
+            case 0:
+                return new CommandFree(player, cell, cell + 1);
+            case 1:
+                return new CommandRecover(player, Arrays.asList(cell, null));
+            case 2:
+                return new CommandFortify(player, cell);
+            case 3:
+                return new CommandSwap(player, cell, random.nextInt(128));
+            case 4:
+                return new CommandScan(player, random.nextBoolean() ? cell : null);
+            case 5:
+                return new CommandScanRange(player, cell, random.nextInt(40) - 4);
+            case 6:
+                return new CommandStats(player);
+            default:
+                return new CommandAllocate(player, cell, cell + 1);
+        }
+    }
+
+    /**
+     * Plays a recorded game, returns the responses of every round and the final state.
+     */
+    private static List<String> record(final Game game, final Path file) throws IOException {
+        List<String> history = new ArrayList<>();
+        try (JournalingGame journaling = new JournalingGame(game, file, 50)) {
+            Player[] players = new Player[5];
+            for (int i = 0; i < players.length; i++) {
+                players[i] = journaling.registerPlayer("p" + i);
+            }
+            MemoryState[] board = new MemoryState[128];
+            Arrays.fill(board, MemoryState.FREE);
+            board[3] = MemoryState.SYSTEM;
+            journaling.startGame(Arrays.asList(board), ROUNDS);
+
+            Random random = new Random(11);
+            Player stranger = new Player("stranger");
+            for (int round = 0; round < ROUNDS; round++) {
+                Command[] commands = new Command[players.length + 1];
+                for (int i = 0; i < players.length; i++) {
+                    commands[i] = command(random, players[i]);
+                }
+                commands[players.length] = command(random, random.nextInt(4) == 0 ? stranger : players[0]);
+                history.add(journaling.nextRound(commands).toString());
+            }
+            history.add(journaling.visualize() + journaling.getScores());
+        }
+        return history;
+    }
+
+    @Test
+    public void testReplayRebuildsTheGame() throws IOException {
+        Path file = folder.newFile().toPath();
+        List<String> expected = record(new PackedGame(), file);
+
+        List<String> actual = new ArrayList<>();
+        PackedGame game = new PackedGame();
+        try (JournalReplayer replayer = new JournalReplayer(file)) {
+            replayer.setListener(responses -> actual.add(responses.toString()));
+            Assert.assertEquals(ROUNDS, replayer.replay(game));
+        }
+        actual.add(game.visualize() + game.getScores());
+        Assert.assertEquals(expected, actual);
+    }
+
+    @Test
+    public void testReplayStopsAtTheRequestedRound() throws IOException {
+        Path file = folder.newFile().toPath();
+        List<String> expected = record(new PackedGame(), file);
+
+        List<String> actual = new ArrayList<>();
+        try (JournalReplayer replayer = new JournalReplayer(file)) {
+            replayer.setListener(responses -> actual.add(responses.toString()));
+            Assert.assertEquals(10, replayer.replay(new PackedGame(), 10));
+            actual.clear();
+            Assert.assertEquals(ROUNDS, replayer.replay(new PackedGame()));
+        }
+        Assert.assertEquals(expected.subList(0, ROUNDS), actual);
+    }
+
+    @Test
+    public void testBoardLargerThanTheWriteBufferIsReplayed() throws IOException {
+        Path file = folder.newFile().toPath();
+        MemoryState[] board = new MemoryState[200_003];
+        for (int i = 0; i < board.length; i++) {
+            board[i] = i % 7 == 0 ? MemoryState.SYSTEM : MemoryState.FREE;
+        }
+        PackedGame recorded = new PackedGame();
+        try (JournalingGame journaling = new JournalingGame(recorded, file, 0)) {
+            Player player = journaling.registerPlayer("p");
+            journaling.startGame(Arrays.asList(board), 1);
+            journaling.nextRound(new CommandAllocate(player, 200_000, 200_001));
+        }
+
+        PackedGame replayed = new PackedGame();
+        try (JournalReplayer replayer = new JournalReplayer(file)) {
+            Assert.assertEquals(1, replayer.replay(replayed));
+        }
+        Assert.assertEquals(recorded.visualize(), replayed.visualize());
+    }
+
+    @Test
+    public void testTruncatedRecordIsIgnored() throws IOException {
+        Path file = folder.newFile().toPath();
+        record(new PackedGame(), file);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.truncate(channel.size() - 3);
+        }
+
+        try (JournalReplayer replayer = new JournalReplayer(file)) {
+            Assert.assertEquals(ROUNDS - 1, replayer.replay(new PackedGame()));
+        }
+    }
+
+    @Test(expected = IOException.class)
+    public void testOtherFilesAreRejected() throws IOException {
+        Path file = folder.newFile().toPath();
+        Files.write(file, new byte[]{1, 2, 3, 4, 5, 6, 7, 8, 9});
+        new JournalReplayer(file).close();
+    }
+}
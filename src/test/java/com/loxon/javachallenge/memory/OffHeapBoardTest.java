@@ -0,0 +1,114 @@
+package com.loxon.javachallenge.memory;
+
+import com.loxon.javachallenge.memory.api.Player;
+import com.loxon.javachallenge.memory.api.communication.commands.CommandStats;
+import com.loxon.javachallenge.memory.api.communication.commands.ResponseStats;
+import com.loxon.javachallenge.memory.engine.BoardInitializer;
+import com.loxon.javachallenge.memory.engine.CellState;
+import com.loxon.javachallenge.memory.engine.PackedGame;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.concurrent.ForkJoinPool;
+
+public class OffHeapBoardTest {
+
+    private static final int CELLS = 200003;
+    private static final BoardInitializer SYSTEM_EVERY_101 = (firstCell, states, count) -> {
+        for (int i = 0; i < count; i++) {
+            if ((firstCell + i) % 101 == 0)
+                states[i] = CellState.SYSTEM;
+        }
+    };
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private static final RandomRounds RANDOM_ROUNDS = new RandomRounds(CELLS, 500, SYSTEM_EVERY_101,
+        RandomRounds.Kind.RECOVER, RandomRounds.Kind.FORTIFY, RandomRounds.Kind.SWAP, RandomRounds.Kind.FREE,
+        RandomRounds.Kind.SCAN_RANGE, RandomRounds.Kind.STATS, RandomRounds.Kind.ALLOCATE_BLOCK);
+
+    private static void configure(final PackedGame game) {
+        game.setVerifyScores(true);
+        game.setHashing(true);
+        game.setFreeSpaceIndexing(true);
+    }
+
+    @Test
+    public void testOffHeapBoardPlaysLikeTheHeapBoard() throws IOException {
+        RandomRounds.Comparison games = RANDOM_ROUNDS.compare(OffHeapBoardTest::configure, game -> {
+            game.setOffHeap(true);
+            game.setParallelism(ForkJoinPool.commonPool());
+            configure(game);
+        });
+        PackedGame heap = games.expected;
+        PackedGame offHeap = games.actual;
+        games.assertSameState();
+        for (int i = 0; i < 50; i++) {
+            games.playRound();
+        }
+        games.assertSameState();
+        Assert.assertEquals(heap.getHash(), offHeap.getHash());
+        Assert.assertEquals(heap.getHash(1000, 2000), offHeap.getHash(1000, 2000));
+        Assert.assertEquals(heap.countFree(0, CELLS), offHeap.countFree(0, CELLS));
+        for (int cell = 0; cell < CELLS; cell += 997) {
+            Assert.assertEquals(heap.nextFreeCell(cell), offHeap.nextFreeCell(cell));
+            Assert.assertEquals(heap.nextFreeBlock(cell / 4), offHeap.nextFreeBlock(cell / 4));
+        }
+
+        Path file = folder.newFile().toPath();
+        offHeap.writeCheckpoint(file);
+        PackedGame restored = PackedGame.readCheckpoint(file, true);
+        restored.setHashing(true);
+        // Restored players are equal to the checkpointed ones
+        RandomRounds.Comparison restoredGames = RANDOM_ROUNDS.compare(heap, games.expectedPlayers,
+            restored, games.actualPlayers);
+        Assert.assertEquals(heap.visualize(), restored.visualize());
+        Assert.assertEquals(heap.getHash(), restored.getHash());
+        for (int i = 0; i < 10; i++) {
+            restoredGames.playRound();
+        }
+        restoredGames.assertSameState();
+    }
+
+    @Test
+    public void testInitializerFillsConsecutiveRuns() {
+        PackedGame game = new PackedGame();
+        game.setOffHeap(true);
+        long[] next = new long[1];
+        game.startGame(CELLS, (firstCell, states, count) -> {
+            Assert.assertEquals(next[0], firstCell);
+            for (int i = 0; i < count; i++) {
+                Assert.assertEquals(CellState.FREE, states[i]);
+            }
+            next[0] += count;
+            SYSTEM_EVERY_101.initialize(firstCell, states, count);
+        }, 1);
+        Assert.assertEquals(CELLS, next[0]);
+        Player player = game.registerPlayer("p");
+        ResponseStats stats = (ResponseStats) game.nextRound(new CommandStats(player)).get(0);
+        Assert.assertEquals(CELLS, stats.getCellCount());
+        Assert.assertEquals((CELLS + 100) / 101, stats.getSystemCells());
+    }
+
+    @Test
+    public void testInvalidBoardsAreRejected() {
+        PackedGame game = new PackedGame();
+        try {
+            game.startGame(PackedGame.MAX_CELLS + 1, (firstCell, states, count) -> { }, 1);
+            Assert.fail();
+        } catch (IllegalArgumentException e) {
+            Assert.assertEquals("Invalid cell count: " + (PackedGame.MAX_CELLS + 1), e.getMessage());
+        }
+        try {
+            game.startGame(8, (firstCell, states, count) -> states[5] = 42, 1);
+            Assert.fail();
+        } catch (IllegalArgumentException e) {
+            Assert.assertEquals("Invalid state of cell 5: 42", e.getMessage());
+        }
+    }
+}
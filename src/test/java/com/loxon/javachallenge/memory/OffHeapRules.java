@@ -0,0 +1,18 @@
+package com.loxon.javachallenge.memory;
+
+import com.loxon.javachallenge.memory.api.Game;
+import com.loxon.javachallenge.memory.engine.PackedGame;
+
+/**
+ * Runs the memory rules against the packed board engine with the board kept off the heap.
+ */
+public class OffHeapRules extends MemoryRules {
+
+    @Override
+    protected Game createGame() {
+        PackedGame game = new PackedGame();
+        game.setOffHeap(true);
+        game.setVerifyScores(true);
+        return game;
+    }
+}
@@ -0,0 +1,17 @@
+package com.loxon.javachallenge.memory;
+
+import com.loxon.javachallenge.memory.api.Game;
+import com.loxon.javachallenge.memory.engine.PackedGame;
+
+/**
+ * Runs the memory rules against the packed board engine.
+ */
+public class PackedGameRules extends MemoryRules {
+
+    @Override
+    protected Game createGame() {
+        PackedGame game = new PackedGame();
+        game.setVerifyScores(true);
+        return game;
+    }
+}
@@ -0,0 +1,39 @@
+package com.loxon.javachallenge.memory;
+
+import com.loxon.javachallenge.memory.engine.CellState;
+import org.junit.Test;
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+public class ParallelRoundTest {
+
+    private static final int PLAYERS = 3000;
+    private static final int CELLS = 4096;
+    private static final int ROUNDS = 30;
+
+    private static final RandomRounds RANDOM_ROUNDS = new RandomRounds(CELLS, PLAYERS, (firstCell, states, count) -> {
+        Random random = new Random(firstCell);
+        for (int i = 0; i < count; i++) {
+            if (random.nextInt(20) == 0)
+                states[i] = CellState.SYSTEM;
+        }
+    }, RandomRounds.Kind.values());
+
+    @Test
+    public void testParallelRoundsMatchSerialRounds() {
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            RandomRounds.Comparison games = RANDOM_ROUNDS.compare(game -> game.setVerifyScores(true), game -> {
+                game.setVerifyScores(true);
+                game.setParallelism(pool);
+            });
+            for (int round = 0; round < ROUNDS; round++) {
+                games.playRound();
+                games.assertSameState();
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package com.loxon.javachallenge.memory;
+
+import com.loxon.javachallenge.memory.api.Player;
+import com.loxon.javachallenge.memory.api.PlayerIdGenerator;
+import com.loxon.javachallenge.memory.engine.PackedGame;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.IntStream;
+
+public class PlayerTest {
+
+    private static void assertUniqueIds(final PlayerIdGenerator ids) {
+        Set<Player> players = ConcurrentHashMap.newKeySet();
+        IntStream.range(0, 100_000).parallel().forEach(i -> players.add(new Player("p", ids)));
+        Assert.assertEquals(100_000, players.size());
+    }
+
+    @Test
+    public void testSequentialIdsAreUnique() {
+        assertUniqueIds(PlayerIdGenerator.SEQUENTIAL);
+    }
+
+    @Test
+    public void testRandomIdsAreUnique() {
+        assertUniqueIds(PlayerIdGenerator.RANDOM);
+    }
+
+    @Test
+    public void testPlayersWithTheSameIdAreEqual() {
+        Player player = new Player("a");
+        Player copy = new Player("b", player::getId);
+        Assert.assertEquals(player, copy);
+        Assert.assertEquals(player.hashCode(), copy.hashCode());
+        Assert.assertNotEquals(player, new Player("a"));
+    }
+
+    @Test
+    public void testDefaultIdsAreSecureRandom() {
+        Assert.assertEquals(4, new Player("a").getId().version());
+        Assert.assertEquals(4, new PackedGame().registerPlayer("a").getId().version());
+    }
+
+    @Test
+    public void testGameUsesTheConfiguredGenerator() {
+        PackedGame game = new PackedGame();
+        game.setPlayerIdGenerator(PlayerIdGenerator.SEQUENTIAL);
+        UUID first = game.registerPlayer("a").getId();
+        UUID second = game.registerPlayer("b").getId();
+        Assert.assertEquals(first.getMostSignificantBits(), second.getMostSignificantBits());
+        Assert.assertEquals(first.getLeastSignificantBits() + 1, second.getLeastSignificantBits());
+    }
+}
@@ -0,0 +1,169 @@
+package com.loxon.javachallenge.memory;
+
+import com.loxon.javachallenge.memory.api.Player;
+import com.loxon.javachallenge.memory.api.communication.commands.CommandAllocate;
+import com.loxon.javachallenge.memory.api.communication.commands.CommandFortify;
+import com.loxon.javachallenge.memory.api.communication.commands.CommandFree;
+import com.loxon.javachallenge.memory.api.communication.commands.CommandRecover;
+import com.loxon.javachallenge.memory.api.communication.commands.CommandScan;
+import com.loxon.javachallenge.memory.api.communication.commands.CommandScanRange;
+import com.loxon.javachallenge.memory.api.communication.commands.CommandStats;
+import com.loxon.javachallenge.memory.api.communication.commands.CommandSwap;
+import com.loxon.javachallenge.memory.api.communication.general.Command;
+import com.loxon.javachallenge.memory.api.communication.general.Response;
+import com.loxon.javachallenge.memory.engine.BoardInitializer;
+import com.loxon.javachallenge.memory.engine.PackedGame;
+import org.junit.Assert;
+
+import java.util.List;
+import java.util.Random;
+import java.util.function.Consumer;
+
+/**
+ * Random rounds of a command mix on a board, for the tests comparing two configurations of the engine.
+ * Every round has a command per player, sent by random players, so some players send more than one.
+ * Cells are random, a few of them outside of the board, and the second cell of a command is mostly the next one.
+ */
+final class RandomRounds {
+
+    enum Kind {
+        ALLOCATE, ALLOCATE_BLOCK, FREE, RECOVER, FORTIFY, SWAP, SCAN, SCAN_RANGE, STATS
+    }
+
+    private static final int ROUNDS = 1000;
+    private static final long SEED = 42;
+
+    private final int cells;
+    private final int players;
+    private final BoardInitializer initializer;
+    private final Kind[] mix;
+
+    /**
+     * @param cells number of cells of the board
+     * @param players number of players
+     * @param initializer initial states of the cells
+     * @param mix kinds of the commands, each is picked with the same probability
+     */
+    RandomRounds(final int cells, final int players, final BoardInitializer initializer, final Kind... mix) {
+        this.cells = cells;
+        this.players = players;
+        this.initializer = initializer;
+        this.mix = mix;
+    }
+
+    /**
+     * Registers the players into a game and starts it.
+     * @return the registered players
+     */
+    Player[] start(final PackedGame game) {
+        Player[] registered = new Player[players];
+        for (int i = 0; i < players; i++) {
+            registered[i] = game.registerPlayer("p" + i);
+        }
+        game.startGame(cells, initializer, ROUNDS);
+        return registered;
+    }
+
+    Command[] round(final Random random, final Player[] players) {
+        Command[] commands = new Command[players.length];
+        for (int i = 0; i < commands.length; i++) {
+            Player player = players[random.nextInt(players.length)];
+            int cell = random.nextInt(cells + 8) - 4;
+            int other = random.nextInt(10) == 0 ? random.nextInt(cells) : cell + 1;
+            switch (mix[random.nextInt(mix.length)]) {
+                case ALLOCATE:
+                    commands[i] = new CommandAllocate(player, cell, other);
+                    break;
+                case ALLOCATE_BLOCK:
+                    commands[i] = new CommandAllocate(player, cell & ~3, (cell & ~3) + 1);
+                    break;
+                case FREE:
+                    commands[i] = new CommandFree(player, cell, other);
+                    break;
+                case RECOVER:
+                    commands[i] = new CommandRecover(player, cell);
+                    break;
+                case FORTIFY:
+                    commands[i] = new CommandFortify(player, cell, other);
+                    break;
+                case SWAP:
+                    commands[i] = new CommandSwap(player, cell, other);
+                    break;
+                case SCAN:
+                    commands[i] = new CommandScan(player, cell);
+                    break;
+                case SCAN_RANGE:
+                    commands[i] = new CommandScanRange(player, cell, 64);
+                    break;
+                default:
+                    commands[i] = new CommandStats(player);
+            }
+        }
+        return commands;
+    }
+
+    /**
+     * Starts two games of different configurations.
+     * @param expected configuration of the reference game, applied before the game starts
+     * @param actual configuration of the game under test, applied before the game starts
+     */
+    Comparison compare(final Consumer<PackedGame> expected, final Consumer<PackedGame> actual) {
+        PackedGame expectedGame = new PackedGame();
+        expected.accept(expectedGame);
+        Player[] expectedPlayers = start(expectedGame);
+        PackedGame actualGame = new PackedGame();
+        actual.accept(actualGame);
+        return new Comparison(expectedGame, expectedPlayers, actualGame, start(actualGame));
+    }
+
+    /**
+     * Compares two running games, such as a game and its restored checkpoint.
+     */
+    Comparison compare(final PackedGame expected, final Player[] expectedPlayers,
+                       final PackedGame actual, final Player[] actualPlayers) {
+        return new Comparison(expected, expectedPlayers, actual, actualPlayers);
+    }
+
+    /**
+     * Two games playing the same rounds, each with its own players.
+     */
+    final class Comparison {
+
+        final PackedGame expected;
+        final PackedGame actual;
+        final Player[] expectedPlayers;
+        final Player[] actualPlayers;
+        private final Random expectedRandom = new Random(SEED);
+        private final Random actualRandom = new Random(SEED);
+
+        private Comparison(final PackedGame expected, final Player[] expectedPlayers,
+                           final PackedGame actual, final Player[] actualPlayers) {
+            this.expected = expected;
+            this.expectedPlayers = expectedPlayers;
+            this.actual = actual;
+            this.actualPlayers = actualPlayers;
+        }
+
+        /**
+         * Plays the next round on both games and checks that they respond the same.
+         */
+        void playRound() {
+            List<Response> expectedResponses = expected.nextRound(round(expectedRandom, expectedPlayers));
+            List<Response> actualResponses = actual.nextRound(round(actualRandom, actualPlayers));
+            Assert.assertEquals(expectedResponses.size(), actualResponses.size());
+            for (int i = 0; i < expectedResponses.size(); i++) {
+                Assert.assertEquals(expectedResponses.get(i).getPlayer().getName(),
+                    actualResponses.get(i).getPlayer().getName());
+                Assert.assertEquals(expectedResponses.get(i), actualResponses.get(i));
+            }
+        }
+
+        /**
+         * Checks that the games have the same board and scores.
+         */
+        void assertSameState() {
+            Assert.assertEquals(expected.visualize(), actual.visualize());
+            Assert.assertEquals(expected.getScores().toString(), actual.getScores().toString());
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package com.loxon.javachallenge.memory;
+
+import com.loxon.javachallenge.memory.api.Game;
+import com.loxon.javachallenge.memory.engine.PackedGame;
+
+/**
+ * Runs the memory rules against the packed board engine in allocation-free round mode.
+ */
+public class ReusedResponsesRules extends MemoryRules {
+
+    @Override
+    protected Game createGame() {
+        PackedGame game = new PackedGame();
+        game.setReuseResponses(true);
+        return game;
+    }
+}
@@ -0,0 +1,81 @@
+package com.loxon.javachallenge.memory;
+
+import com.loxon.javachallenge.memory.api.MemoryState;
+import com.loxon.javachallenge.memory.api.Player;
+import com.loxon.javachallenge.memory.api.communication.commands.CommandAllocate;
+import com.loxon.javachallenge.memory.api.communication.commands.CommandFortify;
+import com.loxon.javachallenge.memory.api.communication.commands.CommandFree;
+import com.loxon.javachallenge.memory.api.communication.commands.CommandRecover;
+import com.loxon.javachallenge.memory.api.communication.commands.CommandScan;
+import com.loxon.javachallenge.memory.api.communication.commands.CommandStats;
+import com.loxon.javachallenge.memory.api.communication.commands.CommandSwap;
+import com.loxon.javachallenge.memory.api.communication.general.Command;
+import com.loxon.javachallenge.memory.engine.PackedGame;
+import com.sun.management.ThreadMXBean;
+import org.junit.Assert;
+import org.junit.Assume;
+import org.junit.Test;
+
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+
+public class RoundAllocationTest {
+
+    private static final int ROUNDS = 20_000;
+
+    @Test
+    public void testSteadyStateRoundsDoNotAllocate() {
+        Assume.assumeTrue("Allocation measurement is not supported.",
+            ManagementFactory.getThreadMXBean() instanceof ThreadMXBean);
+        ThreadMXBean threads = (ThreadMXBean) ManagementFactory.getThreadMXBean();
+        Assume.assumeTrue(threads.isThreadAllocatedMemorySupported());
+        threads.setThreadAllocatedMemoryEnabled(true);
+
+        PackedGame game = new PackedGame();
+        game.setReuseResponses(true);
+        Player[] players = new Player[8];
+        for (int i = 0; i < players.length; i++) {
+            players[i] = game.registerPlayer("p" + i);
+        }
+        MemoryState[] board = new MemoryState[64];
+        Arrays.fill(board, MemoryState.FREE);
+        board[5] = MemoryState.SYSTEM;
+        game.startGame(Arrays.asList(board), Integer.MAX_VALUE);
+
+        Command[][] rounds = {
+            {
+                new CommandAllocate(players[0], 0, 1),
+                new CommandAllocate(players[1], 1, 2),
+                new CommandFree(players[2], 8, 9),
+                new CommandRecover(players[3], 2, 3),
+                new CommandFortify(players[4], 0, 12),
+                new CommandSwap(players[5], 16, 40),
+                new CommandScan(players[6], 17),
+                new CommandStats(players[7])
+            },
+            {
+                new CommandScan(players[0], 0),
+                new CommandStats(players[1]),
+                new CommandFree(players[2], 0, 1),
+                new CommandFree(players[3], 2, 3),
+                new CommandSwap(players[4], 40, 16),
+                new CommandAllocate(players[5], 500, 501),
+                new CommandScan(players[6], -1),
+                new CommandAllocate(players[7], 12, 13)
+            }
+        };
+
+        for (int i = 0; i < ROUNDS; i++) {
+            game.nextRound(rounds[i % rounds.length]);
+        }
+
+        long thread = Thread.currentThread().getId();
+        long before = threads.getThreadAllocatedBytes(thread);
+        for (int i = 0; i < ROUNDS; i++) {
+            game.nextRound(rounds[i % rounds.length]);
+        }
+        long allocated = threads.getThreadAllocatedBytes(thread) - before;
+
+        Assert.assertTrue("Allocated " + allocated + " bytes in " + ROUNDS + " rounds.", allocated < ROUNDS / 10);
+    }
+}
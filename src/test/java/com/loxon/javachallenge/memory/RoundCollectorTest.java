@@ -0,0 +1,208 @@
+package com.loxon.javachallenge.memory;
+
+import com.loxon.javachallenge.memory.api.MemoryState;
+import com.loxon.javachallenge.memory.api.Player;
+import com.loxon.javachallenge.memory.api.communication.commands.CommandAllocate;
+import com.loxon.javachallenge.memory.api.communication.commands.CommandStats;
+import com.loxon.javachallenge.memory.api.communication.commands.ResponseStats;
+import com.loxon.javachallenge.memory.api.communication.commands.ResponseSuccessList;
+import com.loxon.javachallenge.memory.api.communication.general.Command;
+import com.loxon.javachallenge.memory.api.communication.general.Response;
+import com.loxon.javachallenge.memory.engine.PackedGame;
+import com.loxon.javachallenge.memory.server.RoundCollector;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+public class RoundCollectorTest {
+
+    private PackedGame game;
+    private RoundCollector collector;
+
+    private Player[] start(final int players, final long timeoutMillis) {
+        game = new PackedGame();
+        collector = new RoundCollector(game, timeoutMillis, TimeUnit.MILLISECONDS);
+        Player[] registered = new Player[players];
+        for (int i = 0; i < players; i++) {
+            registered[i] = collector.registerPlayer("p" + i);
+        }
+        MemoryState[] board = new MemoryState[players * 4];
+        Arrays.fill(board, MemoryState.FREE);
+        game.startGame(Arrays.asList(board), 10);
+        collector.start();
+        return registered;
+    }
+
+    @After
+    public void tearDown() {
+        collector.close();
+    }
+
+    @Test
+    public void testRoundIsPlayedWhenEveryPlayerSubmitted() throws Exception {
+        Player[] players = start(5000, TimeUnit.MINUTES.toMillis(10));
+        ExecutorService submitters = Executors.newFixedThreadPool(8);
+        List<CompletableFuture<Response>> responses = new ArrayList<>();
+        for (Player player : players) {
+            responses.add(CompletableFuture.supplyAsync(() -> player, submitters)
+                    .thenCompose(p -> collector.submit(new CommandStats(p))));
+        }
+        for (int i = 0; i < players.length; i++) {
+            Response response = responses.get(i).get(10, TimeUnit.SECONDS);
+            Assert.assertTrue(response instanceof ResponseStats);
+            Assert.assertEquals(players[i], response.getPlayer());
+        }
+        submitters.shutdown();
+        Assert.assertEquals(1, collector.getRounds());
+    }
+
+    @Test
+    public void testRoundIsPlayedAtTheDeadline() throws Exception {
+        Player[] players = start(3, 50);
+        Response response = collector.submit(new CommandAllocate(players[0], 0, 1)).get(10, TimeUnit.SECONDS);
+
+        Assert.assertTrue(response instanceof ResponseSuccessList);
+        Assert.assertEquals(Arrays.asList(0, 1), ((ResponseSuccessList) response).getSuccessCells());
+        Assert.assertEquals(1, collector.getRounds());
+    }
+
+    @Test
+    public void testSubmissionsRacingTheStartArePlayed() throws Exception {
+        ExecutorService submitters = Executors.newSingleThreadExecutor();
+        try {
+            for (int i = 0; i < 200; i++) {
+                game = new PackedGame();
+                collector = new RoundCollector(game, 0, TimeUnit.MILLISECONDS);
+                Player player = collector.registerPlayer("p");
+                game.startGame(Arrays.asList(MemoryState.FREE, MemoryState.FREE), 10);
+                // Submits as soon as the first round is open, possibly before its deadline is scheduled
+                CompletableFuture<CompletableFuture<Response>> submitted = CompletableFuture.supplyAsync(() -> {
+                    while (true) {
+                        CompletableFuture<Response> response = collector.submit(new CommandStats(player));
+                        if (!response.isCompletedExceptionally())
+                            return response;
+                    }
+                }, submitters);
+                collector.start();
+                Assert.assertTrue(submitted.get(10, TimeUnit.SECONDS).get(10, TimeUnit.SECONDS) instanceof ResponseStats);
+                collector.close();
+            }
+        } finally {
+            submitters.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testClosingWhileRoundsArePlayedLeavesNoPendingResponse() throws Exception {
+        ExecutorService submitters = Executors.newFixedThreadPool(2);
+        try {
+            for (int i = 0; i < 200; i++) {
+                Player[] players = start(4, 0);
+                Queue<CompletableFuture<Response>> responses = new ConcurrentLinkedQueue<>();
+                AtomicBoolean stopped = new AtomicBoolean();
+                List<Future<?>> submitting = new ArrayList<>();
+                for (int thread = 0; thread < 2; thread++) {
+                    int first = thread;
+                    submitting.add(submitters.submit(() -> {
+                        while (!stopped.get()) {
+                            for (int player = first; player < players.length; player += 2) {
+                                responses.add(collector.submit(new CommandStats(players[player])));
+                            }
+                        }
+                    }));
+                }
+                Thread.sleep(i % 3);
+                collector.close();
+                stopped.set(true);
+                for (Future<?> future : submitting) {
+                    future.get(10, TimeUnit.SECONDS);
+                }
+                for (CompletableFuture<Response> response : responses) {
+                    try {
+                        response.get(10, TimeUnit.SECONDS);
+                    } catch (ExecutionException e) {
+                        Assert.assertEquals(IllegalStateException.class, e.getCause().getClass());
+                    }
+                }
+            }
+        } finally {
+            submitters.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testTimeLimitStartsWhenTheResponsesAreAvailable() throws Exception {
+        game = new PackedGame() {
+            @Override
+            public List<Response> nextRound(final Command... requests) {
+                try {
+                    Thread.sleep(200);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return super.nextRound(requests);
+            }
+        };
+        collector = new RoundCollector(game, 100, TimeUnit.MILLISECONDS);
+        Player player = collector.registerPlayer("p");
+        game.startGame(Arrays.asList(MemoryState.FREE, MemoryState.FREE), 10);
+        collector.start();
+
+        Assert.assertTrue(collector.submit(new CommandStats(player)).get(10, TimeUnit.SECONDS) instanceof ResponseStats);
+        // Playing the first round took longer than the time limit, the second round is still open
+        Assert.assertTrue(collector.submit(new CommandStats(player)).get(10, TimeUnit.SECONDS) instanceof ResponseStats);
+        Assert.assertEquals(2, collector.getRounds());
+    }
+
+    @Test
+    public void testSecondCommandOfAPlayerIsRejected() throws Exception {
+        Player[] players = start(2, TimeUnit.MINUTES.toMillis(10));
+        CompletableFuture<Response> first = collector.submit(new CommandStats(players[0]));
+        CompletableFuture<Response> second = collector.submit(new CommandAllocate(players[0], 0, 1));
+
+        assertRejected(second, IllegalStateException.class);
+        Assert.assertFalse(first.isDone());
+        collector.submit(new CommandStats(players[1]));
+        Assert.assertTrue(first.get(10, TimeUnit.SECONDS) instanceof ResponseStats);
+    }
+
+    @Test
+    public void testUnknownPlayerIsRejected() {
+        start(1, TimeUnit.MINUTES.toMillis(10));
+        assertRejected(collector.submit(new CommandStats(new Player("x"))), IllegalArgumentException.class);
+    }
+
+    @Test
+    public void testPendingCommandsAreRejectedOnClose() {
+        Player[] players = start(2, TimeUnit.MINUTES.toMillis(10));
+        CompletableFuture<Response> pending = collector.submit(new CommandStats(players[0]));
+        collector.close();
+
+        assertRejected(pending, IllegalStateException.class);
+        assertRejected(collector.submit(new CommandStats(players[1])), IllegalStateException.class);
+    }
+
+    private static void assertRejected(final CompletableFuture<Response> response, final Class<?> cause) {
+        try {
+            response.get(10, TimeUnit.SECONDS);
+            Assert.fail();
+        } catch (ExecutionException e) {
+            Assert.assertEquals(cause, e.getCause().getClass());
+        } catch (Exception e) {
+            throw new AssertionError(e);
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package com.loxon.javachallenge.memory;
+
+import com.loxon.javachallenge.memory.api.MemoryState;
+import com.loxon.javachallenge.memory.api.Player;
+import com.loxon.javachallenge.memory.api.communication.commands.CommandAllocate;
+import com.loxon.javachallenge.memory.api.communication.commands.CommandScanRange;
+import com.loxon.javachallenge.memory.api.communication.commands.ResponseScanRange;
+import com.loxon.javachallenge.memory.api.communication.general.Response;
+import com.loxon.javachallenge.memory.engine.PackedGame;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+public class ScanRangeTest {
+
+    private static final MemoryState F = MemoryState.FREE;
+    private static final MemoryState S = MemoryState.SYSTEM;
+    private static final MemoryState AX = MemoryState.ALLOCATED;
+    private static final MemoryState AM = MemoryState.OWNED_ALLOCATED;
+
+    private PackedGame game;
+    private Player pA;
+    private Player pB;
+
+    @Before
+    public void setUp() {
+        game = new PackedGame();
+        pA = game.registerPlayer("a");
+        pB = game.registerPlayer("b");
+        MemoryState[] board = new MemoryState[64];
+        Arrays.fill(board, F);
+        board[6] = S;
+        game.startGame(Arrays.asList(board), 10);
+    }
+
+    private static ResponseScanRange range(final Player player, final int firstCell, final MemoryState... states) {
+        byte[] packed = new byte[states.length];
+        for (int i = 0; i < states.length; i++) {
+            packed[i] = (byte) states[i].ordinal();
+        }
+        return new ResponseScanRange(player, firstCell, packed, packed.length);
+    }
+
+    @Test
+    public void testScansWholeBlocksAfterModifications() {
+        game.nextRound(new CommandAllocate(pA, 0, 1));
+        List<Response> responses = game.nextRound(
+            new CommandScanRange(pA, 3, 6),
+            new CommandAllocate(pB, 8, 9));
+
+        Assert.assertEquals(2, responses.size());
+        Assert.assertEquals(range(pA, 0, AM, AM, F, F, F, F, S, F, AX, AX, F, F), responses.get(1));
+        Assert.assertEquals(AM, ((ResponseScanRange) responses.get(1)).getState(0));
+    }
+
+    @Test
+    public void testRangeIsCutToTheBudgetAndTheBoard() {
+        game.setScanBudget(10);
+        ResponseScanRange budget = (ResponseScanRange) game.nextRound(new CommandScanRange(pA, 16, 100)).get(0);
+        Assert.assertEquals(16, budget.getFirstCell());
+        Assert.assertEquals(8, budget.getCellCount());
+
+        game.setScanBudget(1000);
+        ResponseScanRange board = (ResponseScanRange) game.nextRound(new CommandScanRange(pA, 50, 100)).get(0);
+        Assert.assertEquals(48, board.getFirstCell());
+        Assert.assertEquals(16, board.getCellCount());
+    }
+
+    @Test
+    public void testInvalidRangeIsEmpty() {
+        List<Response> responses = game.nextRound(new CommandScanRange(pA, 64, 4), new CommandScanRange(pB, 0, 0));
+        Assert.assertEquals(range(pA, -1), responses.get(0));
+        Assert.assertEquals(range(pB, -1), responses.get(1));
+    }
+
+    @Test
+    public void testReusedResponsesMatch() {
+        game.setReuseResponses(true);
+        game.nextRound(new CommandAllocate(pB, 4, 5));
+        Assert.assertEquals(range(pA, 4, AX, AX, S, F), game.nextRound(new CommandScanRange(pA, 4, 3)).get(0));
+        Assert.assertEquals(range(pA, 0, F, F, F, F, AX, AX, S, F), game.nextRound(new CommandScanRange(pA, 0, 8)).get(0));
+    }
+}
@@ -0,0 +1,128 @@
+package com.loxon.javachallenge.memory;
+
+import com.loxon.javachallenge.memory.api.MemoryState;
+import com.loxon.javachallenge.memory.api.Player;
+import com.loxon.javachallenge.memory.api.communication.commands.CommandAllocate;
+import com.loxon.javachallenge.memory.api.communication.commands.CommandFortify;
+import com.loxon.javachallenge.memory.api.communication.commands.CommandFree;
+import com.loxon.javachallenge.memory.api.communication.commands.CommandRecover;
+import com.loxon.javachallenge.memory.api.communication.commands.CommandStats;
+import com.loxon.javachallenge.memory.api.communication.commands.CommandSwap;
+import com.loxon.javachallenge.memory.api.communication.general.Command;
+import com.loxon.javachallenge.memory.engine.PackedGame;
+import com.loxon.javachallenge.memory.engine.Snapshot;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+public class SnapshotTest {
+
+    private PackedGame game;
+    private Player[] players;
+    private Random random;
+
+    @Before
+    public void setUp() {
+        game = new PackedGame();
+        game.setVerifyScores(true);
+        players = new Player[6];
+        for (int i = 0; i < players.length; i++) {
+            players[i] = game.registerPlayer("p" + i);
+        }
+        MemoryState[] board = new MemoryState[128];
+        Arrays.fill(board, MemoryState.FREE);
+        board[9] = MemoryState.SYSTEM;
+        game.startGame(Arrays.asList(board), 100);
+        random = new Random(5);
+    }
+
+    private void playRandomRound() {
+        Command[] commands = new Command[players.length];
+        for (int i = 0; i < commands.length; i++) {
+            int cell = random.nextInt(128);
+            int other = cell / 4 * 4 + random.nextInt(4);
+            switch (random.nextInt(5)) {
+                case 0:
+                    commands[i] = new CommandFree(players[i], cell);
+                    break;
+                case 1:
+                    commands[i] = new CommandRecover(players[i], cell);
+                    break;
+                case 2:
+                    commands[i] = new CommandFortify(players[i], cell);
+                    break;
+                case 3:
+                    commands[i] = new CommandSwap(players[i], cell, random.nextInt(128));
+                    break;
+                default:
+                    commands[i] = new CommandAllocate(players[i], cell, other);
+            }
+        }
+        game.nextRound(commands);
+    }
+
+    private String state() {
+        return game.visualize() + game.getScores() + game.nextRound(new CommandStats(players[0])).get(0);
+    }
+
+    @Test
+    public void testRestoreRollsBackEveryRound() {
+        for (int i = 0; i < 5; i++) {
+            playRandomRound();
+        }
+        Snapshot snapshot = game.snapshot();
+        String expected = state();
+        game.restore(snapshot);
+
+        for (int attempt = 0; attempt < 3; attempt++) {
+            for (int i = 0; i < 20; i++) {
+                playRandomRound();
+            }
+            Assert.assertNotEquals(expected, state());
+            game.restore(snapshot);
+            Assert.assertEquals(expected, state());
+            game.restore(snapshot);
+        }
+    }
+
+    @Test
+    public void testNestedSnapshots() {
+        Snapshot outer = game.snapshot();
+        String outerState = state();
+        game.restore(outer);
+        for (int i = 0; i < 10; i++) {
+            playRandomRound();
+        }
+        Snapshot inner = game.snapshot();
+        String innerState = state();
+        game.restore(inner);
+        for (int i = 0; i < 10; i++) {
+            playRandomRound();
+        }
+
+        game.restore(inner);
+        Assert.assertEquals(innerState, state());
+        game.restore(outer);
+        Assert.assertEquals(outerState, state());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testLaterSnapshotIsDroppedByRestore() {
+        Snapshot outer = game.snapshot();
+        playRandomRound();
+        Snapshot inner = game.snapshot();
+        game.restore(outer);
+        playRandomRound();
+        game.restore(inner);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testDiscardedSnapshotCannotBeRestored() {
+        Snapshot snapshot = game.snapshot();
+        game.discardSnapshots();
+        game.restore(snapshot);
+    }
+}
@@ -0,0 +1,74 @@
+package com.loxon.javachallenge.memory;
+
+import com.loxon.javachallenge.memory.api.MemoryState;
+import com.loxon.javachallenge.memory.api.communication.commands.CommandAllocate;
+import com.loxon.javachallenge.memory.api.communication.commands.CommandFortify;
+import com.loxon.javachallenge.memory.api.communication.commands.CommandSwap;
+import com.loxon.javachallenge.memory.api.communication.commands.ResponseSuccessList;
+import com.loxon.javachallenge.memory.engine.PackedGame;
+import com.loxon.javachallenge.memory.tournament.StrategyStats;
+import com.loxon.javachallenge.memory.tournament.Tournament;
+import com.loxon.javachallenge.memory.tournament.TournamentResult;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+public class TournamentTest {
+
+    private static Tournament tournament() {
+        Tournament tournament = new Tournament(PackedGame::new, random -> {
+            MemoryState[] board = new MemoryState[256];
+            for (int i = 0; i < board.length; i++) {
+                board[i] = random.nextInt(10) == 0 ? MemoryState.SYSTEM : MemoryState.FREE;
+            }
+            return Arrays.asList(board);
+        }, 20);
+        tournament.addStrategy("allocator", view -> {
+            int block = view.getRandom().nextInt(view.getCellCount() / 4) * 4;
+            return new CommandAllocate(view.getPlayer(), block, block + 1 + view.getRandom().nextInt(3));
+        });
+        tournament.addStrategy("fortifier", view -> {
+            if (view.getLastResponse() instanceof ResponseSuccessList
+                    && !((ResponseSuccessList) view.getLastResponse()).getSuccessCells().isEmpty()) {
+                List<Integer> cells = ((ResponseSuccessList) view.getLastResponse()).getSuccessCells();
+                return new CommandFortify(view.getPlayer(), cells.get(0));
+            }
+            int block = view.getRandom().nextInt(view.getCellCount() / 4) * 4;
+            return new CommandAllocate(view.getPlayer(), block, block + 1);
+        });
+        tournament.addStrategy("swapper", view -> new CommandSwap(view.getPlayer(),
+            view.getRandom().nextInt(view.getCellCount()), view.getRandom().nextInt(view.getCellCount())));
+        return tournament;
+    }
+
+    @Test
+    public void testSeededRunsAreReproducible() {
+        ForkJoinPool singlePool = new ForkJoinPool(1);
+        ForkJoinPool parallelPool = new ForkJoinPool(4);
+        TournamentResult single;
+        TournamentResult parallel;
+        try {
+            single = tournament().run(100, 42L, singlePool);
+            parallel = tournament().run(100, 42L, parallelPool);
+        } finally {
+            singlePool.shutdown();
+            parallelPool.shutdown();
+        }
+
+        Assert.assertEquals(3, single.getStrategies().size());
+        for (int i = 0; i < 3; i++) {
+            StrategyStats expected = single.getStrategies().get(i);
+            StrategyStats actual = parallel.getStrategies().get(i);
+            Assert.assertEquals(100, expected.getGames());
+            Assert.assertEquals(expected.getTotalScore(), actual.getTotalScore());
+            Assert.assertEquals(expected.getWins(), actual.getWins());
+            Assert.assertEquals(expected.getOwnedBlocks(), actual.getOwnedBlocks());
+            Assert.assertEquals(expected.getMinScore(), actual.getMinScore());
+            Assert.assertEquals(expected.getMaxScore(), actual.getMaxScore());
+        }
+        Assert.assertTrue(single.getStrategies().get(0).getTotalScore() > 0);
+    }
+}
@@ -0,0 +1,63 @@
+package com.loxon.javachallenge.memory;
+
+import com.loxon.javachallenge.memory.api.MemoryState;
+import com.loxon.javachallenge.memory.api.Player;
+import com.loxon.javachallenge.memory.api.communication.commands.CommandAllocate;
+import com.loxon.javachallenge.memory.api.communication.commands.CommandFortify;
+import com.loxon.javachallenge.memory.engine.PackedGame;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.Arrays;
+
+public class VisualizeTest {
+
+    private PackedGame game;
+
+    @Before
+    public void setUp() {
+        game = new PackedGame();
+        Player a = game.registerPlayer("a");
+        Player b = game.registerPlayer("b");
+        MemoryState[] board = new MemoryState[20];
+        Arrays.fill(board, MemoryState.FREE);
+        board[2] = MemoryState.SYSTEM;
+        game.startGame(Arrays.asList(board), 10);
+        game.nextRound(new CommandAllocate(a, 4, 5), new CommandAllocate(b, 9, 9));
+        game.nextRound(new CommandFortify(a, 5));
+    }
+
+    @Test
+    public void testStreamedTextMatchesVisualize() throws IOException {
+        StringWriter writer = new StringWriter();
+        game.visualize(writer);
+        Assert.assertEquals(game.visualize(), writer.toString());
+    }
+
+    @Test
+    public void testRange() throws IOException {
+        StringWriter writer = new StringWriter();
+        game.visualize(writer, 3, 9);
+        Assert.assertEquals("3: FREE(null), 4: ALLOCATED(a), 5: FORTIFIED(a), 6: FREE(null), 7: FREE(null), \n"
+                + "8: FREE(null), ", writer.toString());
+    }
+
+    @Test
+    public void testCompact() throws IOException {
+        StringWriter writer = new StringWriter();
+        game.visualizeCompact(writer, 0, 20, 8);
+        Assert.assertEquals("..#.af..\n.x......\n....\n", writer.toString());
+
+        writer = new StringWriter();
+        game.visualizeCompact(writer, 6, 10, 8);
+        Assert.assertEquals("..\n.x\n", writer.toString());
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void testInvalidRange() throws IOException {
+        game.visualizeCompact(new StringWriter(), 0, 21, 8);
+    }
+}
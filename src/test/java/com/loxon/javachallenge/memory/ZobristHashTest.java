@@ -0,0 +1,59 @@
+package com.loxon.javachallenge.memory;
+
+import com.loxon.javachallenge.memory.api.Player;
+import com.loxon.javachallenge.memory.api.communication.commands.CommandAllocate;
+import com.loxon.javachallenge.memory.api.communication.commands.CommandFree;
+import com.loxon.javachallenge.memory.engine.CellState;
+import com.loxon.javachallenge.memory.engine.PackedGame;
+import com.loxon.javachallenge.memory.engine.Snapshot;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class ZobristHashTest {
+
+    private static final int CELLS = 202;
+
+    private static final RandomRounds RANDOM_ROUNDS = new RandomRounds(CELLS, 5, (firstCell, states, count) -> {
+        for (int i = 0; i < count; i++) {
+            if (firstCell + i == 7)
+                states[i] = CellState.SYSTEM;
+        }
+    }, RandomRounds.Kind.FREE, RandomRounds.Kind.RECOVER, RandomRounds.Kind.FORTIFY, RandomRounds.Kind.SWAP,
+        RandomRounds.Kind.ALLOCATE_BLOCK);
+
+    @Test
+    public void testIncrementalHashMatchesRecalculation() {
+        RandomRounds.Comparison games = RANDOM_ROUNDS.compare(game -> { }, game -> game.setHashing(true));
+        PackedGame incremental = games.actual;
+        for (int i = 0; i < 100; i++) {
+            games.playRound();
+            Assert.assertEquals(games.expected.getHash(), incremental.getHash());
+            Assert.assertEquals(games.expected.getHash(3, 20), incremental.getHash(3, 20));
+            Assert.assertEquals(incremental.getHash(),
+                incremental.getHash(0, 10) ^ incremental.getHash(10, 11) ^ incremental.getHash(11, 51));
+        }
+    }
+
+    @Test
+    public void testSameStateHasTheSameHash() {
+        PackedGame game = new PackedGame();
+        game.setHashing(true);
+        Player[] players = RANDOM_ROUNDS.start(game);
+        long empty = game.getHash();
+        Snapshot snapshot = game.snapshot();
+
+        game.nextRound(new CommandAllocate(players[0], 0, 1));
+        long allocated = game.getHash();
+        Assert.assertNotEquals(empty, allocated);
+        Assert.assertNotEquals(game.getHash(0, 1), game.getHash(1, 2));
+
+        game.nextRound(new CommandFree(players[0], 0, 1));
+        Assert.assertEquals(empty, game.getHash());
+
+        game.nextRound(new CommandAllocate(players[0], 0, 1));
+        Assert.assertEquals(allocated, game.getHash());
+
+        game.restore(snapshot);
+        Assert.assertEquals(empty, game.getHash());
+    }
+}